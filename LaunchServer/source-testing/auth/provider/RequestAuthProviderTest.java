@@ -0,0 +1,159 @@
+package launchserver.auth.provider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import launcher.serialize.config.TextConfigReader;
+import launchserver.auth.AuthException;
+
+public final class RequestAuthProviderTest {
+    private static final int MAX_REQUESTS = 4;
+    private static final int THREADS = 16;
+    private static final int LOGINS = 64; // Per thread
+
+    // Stub auth server state
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private volatile CountDownLatch stall = new CountDownLatch(0);
+
+    private RequestAuthProviderTest() {
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+        try {
+            stall.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            active.decrementAndGet(); // Before responding, next request could be sent right after
+        }
+
+        // Accept any login with "secret" password
+        String query = exchange.getRequestURI().getQuery();
+        String login = query.substring(query.indexOf("login=") + 6, query.indexOf('&'));
+        byte[] body = (query.endsWith("&password=secret") ? "OK:" + login : "Incorrect login or password").
+            getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private void run() throws Throwable {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        ExecutorService serverExecutor = Executors.newCachedThreadPool();
+        server.createContext("/auth", this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        // Run tests
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/auth?login=%login%&password=%password%";
+            testConcurrentLogins(newProvider(url, 10000), clients);
+            testIncorrectPassword(newProvider(url, 10000));
+            testBusy(newProvider(url, 0), clients);
+        } finally {
+            clients.shutdownNow();
+            server.stop(0);
+            serverExecutor.shutdownNow();
+        }
+        System.out.println("RequestAuthProvider tests passed");
+    }
+
+    private void testBusy(RequestAuthProvider provider, ExecutorService clients) throws Throwable {
+        stall = new CountDownLatch(1);
+        List<Future<AuthProviderResult>> stalled = new ArrayList<>(MAX_REQUESTS);
+        try {
+            for (int i = 0; i < MAX_REQUESTS; i++) {
+                String login = "Stalled" + i;
+                stalled.add(clients.submit(() -> provider.auth(login, "secret", "127.0.0.1")));
+            }
+            while (active.get() < MAX_REQUESTS) {
+                Thread.sleep(1L);
+            }
+
+            // All request slots are taken, so login should fail fast
+            try {
+                provider.auth("Busy", "secret", "127.0.0.1");
+                throw new AssertionError("Busy provider accepted a request");
+            } catch (AuthException e) {
+                check(e.getMessage().contains("busy"), "Unexpected busy error: " + e.getMessage());
+            }
+        } finally {
+            stall.countDown();
+        }
+
+        // Stalled logins should complete after all
+        for (Future<AuthProviderResult> future : stalled) {
+            check(future.get(10L, TimeUnit.SECONDS).username.startsWith("Stalled"), "Stalled login failed");
+        }
+    }
+
+    private void testConcurrentLogins(RequestAuthProvider provider, ExecutorService clients) throws Throwable {
+        List<Future<?>> futures = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(clients.submit(() -> {
+                for (int i = 0; i < LOGINS; i++) {
+                    String login = "Player" + thread + '_' + i;
+                    check(provider.auth(login, "secret", "127.0.0.1").username.equals(login), "Wrong username");
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60L, TimeUnit.SECONDS);
+        }
+
+        // Concurrency is limited, and connections are reused (not one per login)
+        check(maxActive.get() <= MAX_REQUESTS, "Too many concurrent requests: " + maxActive.get());
+        check(clientPorts.size() <= THREADS * LOGINS / 8, "Connections aren't reused: " + clientPorts.size());
+        System.out.printf("%d logins over %d connections%n", THREADS * LOGINS, clientPorts.size());
+    }
+
+    public static void main(String... args) throws Throwable {
+        System.setProperty("sun.net.httpserver.nodelay", "true"); // Stub server writes headers and body separately
+        new RequestAuthProviderTest().run();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private static RequestAuthProvider newProvider(String url, int busyTimeout) throws IOException {
+        return new RequestAuthProvider(TextConfigReader.read(new StringReader(String.format(
+            "url: \"%s\"; response: \"OK:(?<username>.+)\"; maxRequests: %d; busyTimeout: %d;",
+            url, MAX_REQUESTS, busyTimeout)), true));
+    }
+
+    private static void testIncorrectPassword(RequestAuthProvider provider) throws IOException {
+        try {
+            provider.auth("Player", "wrong", "127.0.0.1");
+            throw new AssertionError("Incorrect password accepted");
+        } catch (AuthException e) {
+            check(e.getMessage().equals("Incorrect login or password"), "Unexpected error: " + e.getMessage());
+        }
+    }
+}
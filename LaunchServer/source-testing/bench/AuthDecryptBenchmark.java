@@ -0,0 +1,54 @@
+package launchserver.bench;
+
+import java.security.KeyPair;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.BadPaddingException;
+import javax.crypto.IllegalBlockSizeException;
+
+import launcher.helper.IOHelper;
+import launcher.helper.SecurityHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class AuthDecryptBenchmark {
+    private RSAPrivateKey privateKey;
+    private byte[] encryptedPassword;
+
+    @Benchmark
+    public byte[] newCipher() throws IllegalBlockSizeException, BadPaddingException {
+        return SecurityHelper.newRSADecryptCipher(privateKey).doFinal(encryptedPassword); // Before pooling
+    }
+
+    @Benchmark
+    public byte[] pooledCipher() throws IllegalBlockSizeException, BadPaddingException {
+        return SecurityHelper.decrypt(encryptedPassword, privateKey); // As AuthResponse does
+    }
+
+    @Setup
+    public void setup() throws IllegalBlockSizeException, BadPaddingException {
+        KeyPair pair = SecurityHelper.genRSAKeyPair();
+        privateKey = (RSAPrivateKey) pair.getPrivate();
+
+        // Encrypt password as launcher runtime does
+        RSAPublicKey publicKey = (RSAPublicKey) pair.getPublic();
+        encryptedPassword = SecurityHelper.newRSAEncryptCipher(publicKey).doFinal(IOHelper.encode("password"));
+    }
+}
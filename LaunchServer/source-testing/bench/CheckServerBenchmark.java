@@ -0,0 +1,131 @@
+package launchserver.bench;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import launcher.helper.SecurityHelper;
+import launcher.serialize.config.TextConfigReader;
+import launcher.serialize.config.entry.BlockConfigEntry;
+import launchserver.auth.handler.CachedAuthHandler;
+import launchserver.auth.provider.AuthProviderResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckServerBenchmark {
+    private static final int USERS = 1024;
+    private static final String SERVER_ID = "-5c0f1a4e2b3d";
+
+    // Simulated DB write latency, us
+    @Param({ "0", "1000" })
+    public int dbLatency;
+
+    // Instance
+    private StubAuthHandler handler;
+    private String[] usernames;
+    private String[] accessTokens;
+
+    @Benchmark
+    @Threads(8)
+    public UUID checkServer() throws IOException {
+        return handler.checkServer(usernames[ThreadLocalRandom.current().nextInt(USERS)], SERVER_ID);
+    }
+
+    @Benchmark
+    @Group("joining")
+    @GroupThreads(7)
+    public UUID joiningCheckServer() throws IOException {
+        return checkServer(); // Cache hits while other users are joining
+    }
+
+    @Benchmark
+    @Group("joining")
+    @GroupThreads(1)
+    public boolean joiningJoinServer() throws IOException {
+        int index = ThreadLocalRandom.current().nextInt(USERS);
+        return handler.joinServer(usernames[index], accessTokens[index], SERVER_ID);
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        handler = new StubAuthHandler(TextConfigReader.read(new StringReader("cacheSize: 0;"), true),
+            TimeUnit.MICROSECONDS.toNanos(dbLatency));
+        usernames = new String[USERS];
+        accessTokens = new String[USERS];
+
+        // Auth and join all users, so cache is warm
+        for (int i = 0; i < USERS; i++) {
+            usernames[i] = "Player" + i;
+            accessTokens[i] = SecurityHelper.randomStringToken();
+            handler.auth(new AuthProviderResult(usernames[i], accessTokens[i]));
+            handler.joinServer(usernames[i], accessTokens[i], SERVER_ID);
+        }
+    }
+
+    private static final class StubAuthHandler extends CachedAuthHandler {
+        private final long latency;
+        private final Map<String, UUID> database = new ConcurrentHashMap<>(USERS);
+
+        private StubAuthHandler(BlockConfigEntry block, long latency) {
+            super(block);
+            this.latency = latency;
+        }
+
+        @Override
+        public void close() {
+            // Do nothing
+        }
+
+        @Override
+        protected Entry fetchEntry(UUID uuid) {
+            return null; // Not used by benchmark
+        }
+
+        @Override
+        protected Entry fetchEntry(String username) {
+            UUID uuid = database.computeIfAbsent(username, u -> UUID.randomUUID());
+            return new Entry(uuid, username, null, null);
+        }
+
+        @Override
+        protected boolean updateAuth(UUID uuid, String username, String accessToken) {
+            simulateLatency();
+            return true;
+        }
+
+        @Override
+        protected boolean updateServerID(UUID uuid, String serverID) {
+            simulateLatency();
+            return true;
+        }
+
+        private void simulateLatency() {
+            if (latency > 0L) {
+                LockSupport.parkNanos(latency);
+            }
+        }
+    }
+}
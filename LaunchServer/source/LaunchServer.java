@@ -25,7 +25,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import java.util.zip.CRC32;
 import javax.script.Bindings;
 import javax.script.Invocable;
@@ -36,6 +39,7 @@ import javax.script.ScriptException;
 import launcher.Launcher;
 import launcher.LauncherAPI;
 import launcher.client.ClientProfile;
+import launcher.hasher.HashIndex;
 import launcher.hasher.HashedDir;
 import launcher.helper.CommonHelper;
 import launcher.helper.IOHelper;
@@ -71,6 +75,8 @@ import launchserver.response.Response;
 import launchserver.response.Response.Factory;
 import launchserver.response.ServerSocketHandler;
 import launchserver.response.ServerSocketHandler.Listener;
+import launchserver.response.profile.ProfileCache;
+import launchserver.response.update.DeflateCache;
 import launchserver.texture.TextureProvider;
 
 public final class LaunchServer implements Runnable, AutoCloseable {
@@ -81,6 +87,7 @@ public final class LaunchServer implements Runnable, AutoCloseable {
     @LauncherAPI public final Path privateKeyFile;
     @LauncherAPI public final Path updatesDir;
     @LauncherAPI public final Path profilesDir;
+    @LauncherAPI public final Path cacheDir;
 
     // Server config
     @LauncherAPI public final Config config;
@@ -95,6 +102,9 @@ public final class LaunchServer implements Runnable, AutoCloseable {
     // Server
     @LauncherAPI public final CommandHandler commandHandler;
     @LauncherAPI public final ServerSocketHandler serverSocketHandler;
+    @LauncherAPI public final DeflateCache deflateCache;
+    @LauncherAPI public final ExecutorService profileExecutor;
+    @LauncherAPI public final ProfileCache profileCache;
     @LauncherAPI public final ScriptEngine engine = CommonHelper.newScriptEngine();
     private final AtomicBoolean started = new AtomicBoolean(false);
 
@@ -113,6 +123,8 @@ public final class LaunchServer implements Runnable, AutoCloseable {
         privateKeyFile = dir.resolve("private.key");
         updatesDir = dir.resolve("updates");
         profilesDir = dir.resolve("profiles");
+        cacheDir = dir.resolve("cache");
+        deflateCache = new DeflateCache(cacheDir.resolve("deflate"));
 
         // Set command handler
         CommandHandler localCommandHandler;
@@ -164,6 +176,9 @@ public final class LaunchServer implements Runnable, AutoCloseable {
             config = new Config(TextConfigReader.read(reader, true));
         }
         config.verify();
+        profileExecutor = Executors.newFixedThreadPool(config.profileThreads,
+            r -> CommonHelper.newThread("Profile Thread", true, r));
+        profileCache = new ProfileCache(this);
 
         // Set launcher EXE binary
         launcherBinary = new JARLauncherBinary(this);
@@ -189,6 +204,7 @@ public final class LaunchServer implements Runnable, AutoCloseable {
     @Override
     public void close() {
         serverSocketHandler.close();
+        profileExecutor.shutdownNow();
 
         // Close handlers & providers
         try {
@@ -337,11 +353,20 @@ public final class LaunchServer implements Runnable, AutoCloseable {
 
                 // Sync and sign update dir
                 LogHelper.subInfo("Syncing '%s' update dir", name);
-                HashedDir updateHDir = new HashedDir(updateDir, null, true, true);
+                Path indexFile = cacheDir.resolve("hashes").resolve(name + ".bin");
+                HashIndex index = readHashIndex(indexFile);
+                HashedDir updateHDir = new HashedDir(updateDir, null, true, true, index);
+                index.write(indexFile);
+                updateHDir.pathIndex(); // Prebuild for update responses
                 newUpdatesDirMap.put(name, new SignedObjectHolder<>(updateHDir, privateKey));
             }
         }
         updatesDirMap = Collections.unmodifiableMap(newUpdatesDirMap);
+
+        // Delete compressed files of removed or changed update files
+        if (config.compress) {
+            deflateCache.retain(newUpdatesDirMap.values().stream().map(hdir -> hdir.object).collect(Collectors.toList()));
+        }
     }
 
     private void generateConfigIfNotExists() throws IOException {
@@ -424,6 +449,20 @@ public final class LaunchServer implements Runnable, AutoCloseable {
         Launcher.addClassBinding(engine, bindings, "ServerSocketHandlerListener", Listener.class);
     }
 
+    private static HashIndex readHashIndex(Path file) {
+        if (!IOHelper.isFile(file)) {
+            return new HashIndex();
+        }
+
+        // Read previous index (will be rebuilt if broken)
+        try {
+            return HashIndex.read(file);
+        } catch (IOException | IllegalArgumentException e) {
+            LogHelper.subWarning("Can't read hash index, rehashing: %s", e);
+            return new HashIndex();
+        }
+    }
+
     private final class ProfilesFileVisitor extends SimpleFileVisitor<Path> {
         private final Collection<SignedObjectHolder<ClientProfile>> result;
 
@@ -459,6 +498,18 @@ public final class LaunchServer implements Runnable, AutoCloseable {
         // Misc options
         @LauncherAPI public final boolean launch4J;
         @LauncherAPI public final boolean compress;
+
+        // Profile options
+        @LauncherAPI public final int profileThreads;
+        @LauncherAPI public final int batchProfileConcurrency;
+        @LauncherAPI public final int profileCacheExpire;
+        @LauncherAPI public final int profileCacheSize;
+
+        // Network options
+        @LauncherAPI public final boolean nio;
+        @LauncherAPI public final int nioSelectors;
+        @LauncherAPI public final int nioWorkers;
+        @LauncherAPI public final boolean virtualThreads;
         private final StringConfigEntry address;
         private final String bindAddress;
 
@@ -481,6 +532,31 @@ public final class LaunchServer implements Runnable, AutoCloseable {
             // Set misc config
             launch4J = block.getEntryValue("launch4J", BooleanConfigEntry.class);
             compress = block.getEntryValue("compress", BooleanConfigEntry.class);
+
+            // Set profile config
+            profileThreads = block.hasEntry("profileThreads") ? VerifyHelper.verifyInt(
+                block.getEntryValue("profileThreads", IntegerConfigEntry.class),
+                VerifyHelper.POSITIVE, "profileThreads can't be <= 0") : 32;
+            batchProfileConcurrency = block.hasEntry("batchProfileConcurrency") ? VerifyHelper.verifyInt(
+                block.getEntryValue("batchProfileConcurrency", IntegerConfigEntry.class),
+                VerifyHelper.POSITIVE, "batchProfileConcurrency can't be <= 0") : 8;
+            profileCacheExpire = block.hasEntry("profileCacheExpire") ? VerifyHelper.verifyInt(
+                block.getEntryValue("profileCacheExpire", IntegerConfigEntry.class),
+                VerifyHelper.NOT_NEGATIVE, "profileCacheExpire can't be < 0") : 10;
+            profileCacheSize = block.hasEntry("profileCacheSize") ? VerifyHelper.verifyInt(
+                block.getEntryValue("profileCacheSize", IntegerConfigEntry.class),
+                VerifyHelper.POSITIVE, "profileCacheSize can't be <= 0") : 16384;
+
+            // Set network config
+            nio = block.hasEntry("nio") && block.getEntryValue("nio", BooleanConfigEntry.class);
+            nioSelectors = block.hasEntry("nioSelectors") ? VerifyHelper.verifyInt(
+                block.getEntryValue("nioSelectors", IntegerConfigEntry.class),
+                VerifyHelper.POSITIVE, "nioSelectors can't be <= 0") : 2;
+            nioWorkers = block.hasEntry("nioWorkers") ? VerifyHelper.verifyInt(
+                block.getEntryValue("nioWorkers", IntegerConfigEntry.class),
+                VerifyHelper.POSITIVE, "nioWorkers can't be <= 0") : 256;
+            virtualThreads = block.hasEntry("virtualThreads") &&
+                block.getEntryValue("virtualThreads", BooleanConfigEntry.class);
         }
 
         @LauncherAPI
@@ -2,6 +2,7 @@ package launchserver.auth;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.sql.DataSource;
 
 import com.mysql.cj.jdbc.MysqlDataSource;
@@ -33,7 +34,8 @@ public final class MySQLSourceConfig extends ConfigObject implements AutoCloseab
     private final String database;
 
     // Cache
-    private DataSource source;
+    private final ReentrantLock sourceLock = new ReentrantLock();
+    private volatile DataSource source;
     private boolean hikari;
 
     @LauncherAPI
@@ -54,64 +56,85 @@ public final class MySQLSourceConfig extends ConfigObject implements AutoCloseab
     }
 
     @Override
-    public synchronized void close() {
-        if (hikari) { // Shutdown hikari pool
-            ((HikariDataSource) source).close();
+    public void close() {
+        sourceLock.lock();
+        try {
+            if (hikari) { // Shutdown hikari pool
+                ((HikariDataSource) source).close();
+            }
+        } finally {
+            sourceLock.unlock();
         }
     }
 
     @LauncherAPI
-    public synchronized Connection getConnection() throws SQLException {
-        if (source == null) { // New data source
-            MysqlDataSource mysqlSource = new MysqlDataSource();
-            mysqlSource.setCharacterEncoding("UTF-8");
-            mysqlSource.setUseSSL(false);
-
-            // Prep statements cache
-            mysqlSource.setPrepStmtCacheSize(250);
-            mysqlSource.setPrepStmtCacheSqlLimit(2048);
-            mysqlSource.setCachePrepStmts(true);
-            mysqlSource.setUseServerPrepStmts(true);
-
-            // General optimizations
-            mysqlSource.setCacheServerConfiguration(true);
-            mysqlSource.setUseLocalSessionState(true);
-            mysqlSource.setRewriteBatchedStatements(true);
-            mysqlSource.setMaintainTimeStats(false);
-            mysqlSource.setUseUnbufferedInput(false);
-            mysqlSource.setUseReadAheadInput(false);
-            mysqlSource.setTcpNoDelay(true);
-
-            // Set credentials
-            mysqlSource.setServerName(address);
-            mysqlSource.setPortNumber(port);
-            mysqlSource.setUser(username);
-            mysqlSource.setPassword(password);
-            mysqlSource.setDatabaseName(database);
-
-            // Try using HikariCP
-            source = mysqlSource;
-            try {
-                Class.forName("com.zaxxer.hikari.HikariDataSource");
-                hikari = true; // Used for shutdown. Not instanceof because of possible classpath error
-
-                // Set HikariCP pool
-                HikariDataSource hikariSource = new HikariDataSource();
-                hikariSource.setDataSource(source);
-
-                // Set pool settings
-                hikariSource.setPoolName(poolName);
-                hikariSource.setMinimumIdle(0);
-                hikariSource.setMaximumPoolSize(MAX_POOL_SIZE);
-                hikariSource.setIdleTimeout(TIMEOUT * 1000L);
-
-                // Replace source with hds
-                source = hikariSource;
-                LogHelper.info("HikariCP pooling enabled for '%s'", poolName);
-            } catch (ClassNotFoundException ignored) {
-                LogHelper.warning("HikariCP isn't in classpath for '%s'", poolName);
-            }
+    public Connection getConnection() throws SQLException {
+        DataSource source = this.source;
+        if (source == null) {
+            source = getSource();
         }
+
+        // Don't hold the lock while connecting (pool may block)
         return source.getConnection();
     }
+
+    private DataSource getSource() {
+        sourceLock.lock();
+        try {
+            if (source == null) { // New data source
+                MysqlDataSource mysqlSource = new MysqlDataSource();
+                mysqlSource.setCharacterEncoding("UTF-8");
+                mysqlSource.setUseSSL(false);
+
+                // Prep statements cache
+                mysqlSource.setPrepStmtCacheSize(250);
+                mysqlSource.setPrepStmtCacheSqlLimit(2048);
+                mysqlSource.setCachePrepStmts(true);
+                mysqlSource.setUseServerPrepStmts(true);
+
+                // General optimizations
+                mysqlSource.setCacheServerConfiguration(true);
+                mysqlSource.setUseLocalSessionState(true);
+                mysqlSource.setRewriteBatchedStatements(true);
+                mysqlSource.setMaintainTimeStats(false);
+                mysqlSource.setUseUnbufferedInput(false);
+                mysqlSource.setUseReadAheadInput(false);
+                mysqlSource.setTcpNoDelay(true);
+
+                // Set credentials
+                mysqlSource.setServerName(address);
+                mysqlSource.setPortNumber(port);
+                mysqlSource.setUser(username);
+                mysqlSource.setPassword(password);
+                mysqlSource.setDatabaseName(database);
+
+                // Try using HikariCP
+                DataSource newSource = mysqlSource;
+                try {
+                    Class.forName("com.zaxxer.hikari.HikariDataSource");
+                    hikari = true; // Used for shutdown. Not instanceof because of possible classpath error
+
+                    // Set HikariCP pool
+                    HikariDataSource hikariSource = new HikariDataSource();
+                    hikariSource.setDataSource(newSource);
+
+                    // Set pool settings
+                    hikariSource.setPoolName(poolName);
+                    hikariSource.setMinimumIdle(0);
+                    hikariSource.setMaximumPoolSize(MAX_POOL_SIZE);
+                    hikariSource.setIdleTimeout(TIMEOUT * 1000L);
+
+                    // Replace source with hds
+                    newSource = hikariSource;
+                    LogHelper.info("HikariCP pooling enabled for '%s'", poolName);
+                } catch (ClassNotFoundException ignored) {
+                    LogHelper.warning("HikariCP isn't in classpath for '%s'", poolName);
+                }
+                source = newSource; // Publish only fully configured source
+            }
+            return source;
+        } finally {
+            sourceLock.unlock();
+        }
+    }
 }
@@ -65,6 +65,7 @@ public abstract class AuthHandler extends ConfigObject implements AutoCloseable
         // Auth handler that doesn't do nothing :D
         registerHandler("binaryFile", BinaryFileAuthHandler::new);
         registerHandler("textFile", TextFileAuthHandler::new);
+        registerHandler("mappedFile", MappedFileAuthHandler::new);
         registerHandler("mysql", MySQLAuthHandler::new);
     }
 }
@@ -1,73 +1,164 @@
 package launchserver.auth.handler;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 import launcher.LauncherAPI;
 import launcher.helper.CommonHelper;
 import launcher.helper.SecurityHelper;
+import launcher.helper.VerifyHelper;
 import launcher.request.auth.JoinServerRequest;
 import launcher.serialize.config.entry.BlockConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
 import launchserver.auth.provider.AuthProviderResult;
 
 public abstract class CachedAuthHandler extends AuthHandler {
-    private final Map<UUID, Entry> entryCache = new HashMap<>(1024);
-    private final Map<String, UUID> usernamesCache = new HashMap<>(1024);
+    private static final int LOCK_STRIPES = 64; // Power of two
+    private static final long TOUCH_NANOS = TimeUnit.SECONDS.toNanos(1L); // Access time granularity
+    private static final int MAX_ABSENT = 65536; // Don't let bots fill heap with random usernames
+
+    // Config
+    private final int cacheSize;
+    private final long cacheExpire;
+    private final long cacheAbsentExpire;
+
+    // Instance
+    private final Map<UUID, Entry> entryCache = new ConcurrentHashMap<>(1024);
+    private final Map<String, UUID> usernamesCache = new ConcurrentHashMap<>(1024);
+
+    // Negative cache (UUID or lowercase username -> expiration nanos)
+    private final Map<Object, Long> absentCache = new ConcurrentHashMap<>(256);
+
+    // Loading entries (only one fetch per UUID or username at a time)
+    private final Map<Object, FutureTask<Entry>> loading = new ConcurrentHashMap<>(64);
+
+    // Striped locks for entry updates (not monitors, so virtual threads won't pin)
+    private final ReentrantLock[] uuidLocks = newLocks();
+
+    // Eviction (approximate LRU, amortized by evicting down to 7/8 of cache size)
+    private final ReentrantLock evictLock = new ReentrantLock();
+    private volatile long lastEvict = System.nanoTime();
+
+    // Stats
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
 
     @LauncherAPI
     protected CachedAuthHandler(BlockConfigEntry block) {
         super(block);
+        cacheSize = block.hasEntry("cacheSize") ? VerifyHelper.verifyInt(
+            block.getEntryValue("cacheSize", IntegerConfigEntry.class),
+            VerifyHelper.NOT_NEGATIVE, "cacheSize can't be < 0") : 0;
+        cacheExpire = block.hasEntry("cacheExpire") ? TimeUnit.SECONDS.toNanos(VerifyHelper.verifyInt(
+            block.getEntryValue("cacheExpire", IntegerConfigEntry.class),
+            VerifyHelper.NOT_NEGATIVE, "cacheExpire can't be < 0")) : 0L;
+        cacheAbsentExpire = TimeUnit.SECONDS.toNanos(block.hasEntry("cacheAbsentExpire") ? VerifyHelper.verifyInt(
+            block.getEntryValue("cacheAbsentExpire", IntegerConfigEntry.class),
+            VerifyHelper.NOT_NEGATIVE, "cacheAbsentExpire can't be < 0") : 0);
     }
 
     @Override
-    public final synchronized UUID auth(AuthProviderResult result) throws IOException {
+    public final UUID auth(AuthProviderResult result) throws IOException {
+        absentCache.remove(CommonHelper.low(result.username)); // Account could be registered since then
         Entry entry = getEntry(result.username);
-        if (entry == null || !updateAuth(entry.uuid, entry.username, result.accessToken)) {
+        if (entry == null) {
             return authError(String.format("UUID is null for username '%s'", result.username));
         }
 
-        // Update cached access token (and username case)
-        entry.username = result.username;
-        entry.accessToken = result.accessToken;
-        entry.serverID = null;
-        return entry.uuid;
+        // Update auth for this user only
+        ReentrantLock lock = getLock(uuidLocks, entry.uuid);
+        lock.lock();
+        try {
+            if (!updateAuth(entry.uuid, entry.username, result.accessToken)) {
+                return authError(String.format("UUID is null for username '%s'", result.username));
+            }
+
+            // Update cached access token (and username case), server ID is reset first
+            entry.serverID = null;
+            entry.accessToken = result.accessToken;
+            entry.username = result.username;
+            return entry.uuid;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public final synchronized UUID checkServer(String username, String serverID) throws IOException {
+    public final UUID checkServer(String username, String serverID) throws IOException {
         Entry entry = getEntry(username);
         return entry != null && username.equals(entry.username) &&
             serverID.equals(entry.serverID) ? entry.uuid : null;
     }
 
     @Override
-    public final synchronized boolean joinServer(String username, String accessToken, String serverID) throws IOException {
+    public final boolean joinServer(String username, String accessToken, String serverID) throws IOException {
         Entry entry = getEntry(username);
-        if (entry == null || !username.equals(entry.username) || !accessToken.equals(entry.accessToken) ||
-            !updateServerID(entry.uuid, serverID)) {
-            return false; // Account doesn't exist or invalid access token
+        if (entry == null) {
+            return false; // Account doesn't exist
         }
 
-        // Update cached server ID
-        entry.serverID = serverID;
-        return true;
+        // Update server ID for this user only
+        ReentrantLock lock = getLock(uuidLocks, entry.uuid);
+        lock.lock();
+        try {
+            if (!username.equals(entry.username) || !accessToken.equals(entry.accessToken) ||
+                !updateServerID(entry.uuid, serverID)) {
+                return false; // Invalid access token
+            }
+
+            // Update cached server ID
+            entry.serverID = serverID;
+            return true;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public final synchronized UUID usernameToUUID(String username) throws IOException {
+    public final UUID usernameToUUID(String username) throws IOException {
         Entry entry = getEntry(username);
         return entry == null ? null : entry.uuid;
     }
 
     @Override
-    public final synchronized String uuidToUsername(UUID uuid) throws IOException {
+    public final String uuidToUsername(UUID uuid) throws IOException {
         Entry entry = getEntry(uuid);
         return entry == null ? null : entry.username;
     }
 
+    @LauncherAPI
+    public final long getCacheEvictions() {
+        return evictions.sum();
+    }
+
+    @LauncherAPI
+    public final long getCacheHits() {
+        return hits.sum();
+    }
+
+    @LauncherAPI
+    public final long getCacheMisses() {
+        return misses.sum();
+    }
+
+    @LauncherAPI
+    public final int getCacheSize() {
+        return entryCache.size();
+    }
+
     @LauncherAPI
     protected abstract Entry fetchEntry(UUID uuid) throws IOException;
 
@@ -82,45 +173,238 @@ public abstract class CachedAuthHandler extends AuthHandler {
 
     @LauncherAPI
     protected void addEntry(Entry entry) {
-        Entry previous = entryCache.put(entry.uuid, entry);
-        if (previous != null) { // In case of username changing
-            usernamesCache.remove(CommonHelper.low(previous.username));
+        ReentrantLock lock = getLock(uuidLocks, entry.uuid);
+        lock.lock();
+        try {
+            putEntry(entry);
+        } finally {
+            lock.unlock();
         }
-        usernamesCache.put(CommonHelper.low(entry.username), entry.uuid);
+        evictIfNeeded();
     }
 
-    private Entry getEntry(UUID uuid) throws IOException {
+    private Entry cacheEntry(Entry entry) {
+        ReentrantLock lock = getLock(uuidLocks, entry.uuid);
+        lock.lock();
+        try {
+            // Keep cached entry if fetched one may be stale (fetched before concurrent update)
+            Entry cached = entryCache.get(entry.uuid);
+            if (cached != null && cached.username.equals(entry.username)) {
+                usernamesCache.put(CommonHelper.low(cached.username), cached.uuid);
+                return cached;
+            }
+
+            // Username changed or not cached yet
+            putEntry(entry);
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        lastEvict = now;
+
+        // Expire idle entries
+        List<Entry> entries = new ArrayList<>(entryCache.values());
+        if (cacheExpire > 0L) {
+            entries.removeIf(entry -> now - entry.accessed > cacheExpire && removeEntry(entry));
+        }
+
+        // Evict least recently used entries
+        int excess = cacheSize > 0 ? entries.size() - (cacheSize - (cacheSize >>> 3)) : 0;
+        if (excess > 0) {
+            long[] accessed = new long[entries.size()];
+            for (int i = 0; i < accessed.length; i++) {
+                accessed[i] = entries.get(i).accessed - now;
+            }
+            Arrays.sort(accessed); // Snapshot, as entries could be touched while evicting
+
+            // Evict entries not touched since snapshot
+            long threshold = accessed[excess - 1];
+            for (Entry entry : entries) {
+                if (excess > 0 && entry.accessed - now <= threshold && removeEntry(entry)) {
+                    excess--;
+                }
+            }
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (cacheSize > 0 && entryCache.size() > cacheSize ||
+            cacheExpire > 0L && System.nanoTime() - lastEvict > cacheExpire >>> 1) {
+            if (evictLock.tryLock()) { // Otherwise someone is already evicting
+                try {
+                    evict();
+                } finally {
+                    evictLock.unlock();
+                }
+            }
+        }
+    }
+
+    private Entry getCached(UUID uuid) {
         Entry entry = entryCache.get(uuid);
-        if (entry == null) {
-            entry = fetchEntry(uuid);
-            if (entry != null) {
-                addEntry(entry);
+        if (entry != null) {
+            long now = System.nanoTime();
+            if (now - entry.accessed > TOUCH_NANOS) { // Don't dirty cache line on every hit
+                entry.accessed = now;
             }
         }
         return entry;
     }
 
+    private Entry getCached(String usernameLow) {
+        UUID uuid = usernamesCache.get(usernameLow);
+        return uuid == null ? null : getCached(uuid);
+    }
+
+    private Entry getEntry(UUID uuid) throws IOException {
+        Entry entry = getCached(uuid);
+        if (entry != null || isAbsent(uuid)) {
+            hits.increment();
+            return entry;
+        }
+
+        // Fetch entry by UUID
+        misses.increment();
+        entry = load(uuid, () -> {
+            Entry cached = getCached(uuid);
+            if (cached != null) {
+                return cached; // Loaded while we were waiting
+            }
+            Entry fetched = fetchEntry(uuid);
+            return fetched == null ? putAbsent(uuid) : cacheEntry(fetched);
+        });
+        evictIfNeeded();
+        return entry;
+    }
+
     private Entry getEntry(String username) throws IOException {
-        UUID uuid = usernamesCache.get(CommonHelper.low(username));
-        if (uuid != null) {
-            return getEntry(uuid);
+        String usernameLow = CommonHelper.low(username);
+        Entry entry = getCached(usernameLow);
+        if (entry != null || isAbsent(usernameLow)) {
+            hits.increment();
+            return entry;
         }
 
         // Fetch entry by username
-        Entry entry = fetchEntry(username);
-        if (entry != null) {
-            addEntry(entry);
+        misses.increment();
+        entry = load(usernameLow, () -> {
+            Entry cached = getCached(usernameLow);
+            if (cached != null) {
+                return cached; // Loaded while we were waiting
+            }
+            Entry fetched = fetchEntry(username);
+            return fetched == null ? putAbsent(usernameLow) : cacheEntry(fetched);
+        });
+        evictIfNeeded();
+        return entry;
+    }
+
+    private boolean isAbsent(Object key) {
+        Long expiration = absentCache.get(key);
+        if (expiration == null) {
+            return false;
         }
 
-        // Return what we got
-        return entry;
+        // Check if not expired yet
+        if (System.nanoTime() - expiration < 0L) {
+            return true;
+        }
+        absentCache.remove(key, expiration);
+        return false;
+    }
+
+    private Entry load(Object key, Callable<Entry> loader) throws IOException {
+        FutureTask<Entry> task = new FutureTask<>(loader);
+        FutureTask<Entry> previous = loading.putIfAbsent(key, task);
+        if (previous == null) {
+            try {
+                task.run();
+            } finally {
+                loading.remove(key, task);
+            }
+        } else {
+            task = previous;
+        }
+
+        // Wait for result
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private Entry putAbsent(Object key) {
+        if (cacheAbsentExpire <= 0L) {
+            return null; // Negative caching is disabled
+        }
+
+        // Drop expired entries if too many
+        long now = System.nanoTime();
+        if (absentCache.size() >= MAX_ABSENT) {
+            absentCache.values().removeIf(expiration -> now - expiration >= 0L);
+            if (absentCache.size() >= MAX_ABSENT) {
+                return null; // Still too many, don't cache
+            }
+        }
+        absentCache.put(key, now + cacheAbsentExpire);
+        return null;
+    }
+
+    private void putEntry(Entry entry) {
+        Entry previous = entryCache.put(entry.uuid, entry);
+        if (previous != null) { // In case of username changing
+            usernamesCache.remove(CommonHelper.low(previous.username), previous.uuid);
+        }
+        usernamesCache.put(CommonHelper.low(entry.username), entry.uuid);
+
+        // Not absent anymore
+        absentCache.remove(entry.uuid);
+        absentCache.remove(CommonHelper.low(entry.username));
+    }
+
+    private boolean removeEntry(Entry entry) {
+        ReentrantLock lock = getLock(uuidLocks, entry.uuid);
+        lock.lock();
+        try {
+            if (!entryCache.remove(entry.uuid, entry)) {
+                return false; // Already replaced or removed
+            }
+            usernamesCache.remove(CommonHelper.low(entry.username), entry.uuid);
+        } finally {
+            lock.unlock();
+        }
+        evictions.increment();
+        return true;
+    }
+
+    private static ReentrantLock getLock(ReentrantLock[] locks, Object key) {
+        int hash = key.hashCode();
+        return locks[(hash ^ hash >>> 16) & LOCK_STRIPES - 1];
+    }
+
+    private static ReentrantLock[] newLocks() {
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
     }
 
     public static final class Entry {
         @LauncherAPI public final UUID uuid;
-        private String username;
-        private String accessToken;
-        private String serverID;
+        private volatile String username;
+        private volatile String accessToken;
+        private volatile String serverID;
+        private volatile long accessed = System.nanoTime();
 
         @LauncherAPI
         public Entry(UUID uuid, String username, String accessToken, String serverID) {
@@ -1,7 +1,16 @@
 package launchserver.auth.handler;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.SecureRandom;
 import java.util.Collections;
 import java.util.HashMap;
@@ -9,6 +18,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
 
 import launcher.LauncherAPI;
 import launcher.client.PlayerProfile;
@@ -18,18 +28,28 @@ import launcher.helper.LogHelper;
 import launcher.helper.SecurityHelper;
 import launcher.helper.VerifyHelper;
 import launcher.request.auth.JoinServerRequest;
+import launcher.serialize.HBufferOutput;
 import launcher.serialize.HInput;
 import launcher.serialize.HOutput;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.BooleanConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
 import launcher.serialize.stream.StreamObject;
 import launchserver.auth.provider.AuthProviderResult;
 
 public abstract class FileAuthHandler extends AuthHandler {
+    private static final int MIN_COMPACT_RECORDS = 4096;
+    private static final int MAX_RECORD_LENGTH = 1024;
+
+    // Config
     @LauncherAPI public final Path file;
     @LauncherAPI public final Path fileTmp;
+    @LauncherAPI public final Path journalFile;
     @LauncherAPI public final boolean offlineUUIDs;
+    private final Path journalOldFile;
+    private final JournalSync journalSync;
+    private final int journalSyncInterval;
 
     // Instance
     private final SecureRandom random = SecurityHelper.newRandom();
@@ -39,12 +59,26 @@ public abstract class FileAuthHandler extends AuthHandler {
     private final Map<UUID, Entry> entryMap = new HashMap<>(256);
     private final Map<String, UUID> usernamesMap = new HashMap<>(256);
 
+    // Journal (appended under write lock, compacted to auth handler file)
+    private final Thread journalThread;
+    private FileChannel journalChannel;
+    private HOutput journal;
+    private int journalRecords;
+    private volatile boolean closed;
+
     @LauncherAPI
     protected FileAuthHandler(BlockConfigEntry block) {
         super(block);
         file = IOHelper.toPath(block.getEntryValue("file", StringConfigEntry.class));
         fileTmp = IOHelper.toPath(block.getEntryValue("file", StringConfigEntry.class) + ".tmp");
+        journalFile = IOHelper.toPath(block.getEntryValue("file", StringConfigEntry.class) + ".journal");
+        journalOldFile = IOHelper.toPath(block.getEntryValue("file", StringConfigEntry.class) + ".journal.old");
         offlineUUIDs = block.getEntryValue("offlineUUIDs", BooleanConfigEntry.class);
+        journalSync = block.hasEntry("journalSync") ?
+            getJournalSync(block.getEntryValue("journalSync", StringConfigEntry.class)) : JournalSync.INTERVAL;
+        journalSyncInterval = block.hasEntry("journalSyncInterval") ? VerifyHelper.verifyInt(
+            block.getEntryValue("journalSyncInterval", IntegerConfigEntry.class),
+            VerifyHelper.POSITIVE, "journalSyncInterval can't be <= 0") : 1000;
 
         // Read auth handler file
         if (IOHelper.isFile(file)) {
@@ -55,6 +89,25 @@ public abstract class FileAuthHandler extends AuthHandler {
                 LogHelper.error(e);
             }
         }
+
+        // Replay journals (old one is left if last compaction failed)
+        boolean replayed = replayJournal(journalOldFile);
+        replayed |= replayJournal(journalFile);
+
+        // Open journal (compact replayed journals, so torn tail is dropped)
+        try {
+            if (replayed) {
+                compact();
+            } else {
+                openJournal();
+            }
+        } catch (IOException e) {
+            LogHelper.error(e);
+        }
+
+        // Start syncing journal
+        journalThread = CommonHelper.newThread("AuthHandler Journal Thread", true, this::journalLoop);
+        journalThread.start();
     }
 
     @Override
@@ -76,6 +129,7 @@ public abstract class FileAuthHandler extends AuthHandler {
 
             // Authenticate
             entry.auth(authResult.username, authResult.accessToken);
+            appendJournal(uuid, entry);
             return uuid;
         } finally {
             lock.writeLock().unlock();
@@ -98,22 +152,32 @@ public abstract class FileAuthHandler extends AuthHandler {
 
     @Override
     public final void close() throws IOException {
-        lock.readLock().lock();
+        closed = true;
+        journalThread.interrupt();
         try {
-            LogHelper.info("Writing auth handler file (%d entries)", entryMap.size());
-            writeAuthFileTmp();
-            IOHelper.move(fileTmp, file);
-        } finally {
-            lock.readLock().unlock();
+            journalThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+
+        // Write auth handler file (journal isn't reopened)
+        LogHelper.info("Writing auth handler file (%d entries)", entryMap.size());
+        compact();
     }
 
     @Override
     public final boolean joinServer(String username, String accessToken, String serverID) {
         lock.writeLock().lock();
         try {
-            Entry entry = entryMap.get(usernameToUUID(username));
-            return entry != null && entry.joinServer(username, accessToken, serverID);
+            UUID uuid = usernameToUUID(username);
+            Entry entry = entryMap.get(uuid);
+            if (entry == null || !entry.joinServer(username, accessToken, serverID)) {
+                return false;
+            }
+
+            // Journal joined server ID
+            appendJournal(uuid, entry);
+            return true;
         } finally {
             lock.writeLock().unlock();
         }
@@ -142,7 +206,16 @@ public abstract class FileAuthHandler extends AuthHandler {
 
     @LauncherAPI
     public final Set<Map.Entry<UUID, Entry>> entrySet() {
-        return Collections.unmodifiableMap(entryMap).entrySet();
+        lock.readLock().lock();
+        try { // Snapshot copy, so it could be written without holding the lock
+            Map<UUID, Entry> snapshot = new HashMap<>(entryMap.size());
+            for (Map.Entry<UUID, Entry> entry : entryMap.entrySet()) {
+                snapshot.put(entry.getKey(), new Entry(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(snapshot).entrySet();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @LauncherAPI
@@ -165,6 +238,59 @@ public abstract class FileAuthHandler extends AuthHandler {
         }
     }
 
+    private void appendJournal(UUID uuid, Entry entry) {
+        if (journal == null) {
+            return; // Journal is unavailable (or closed)
+        }
+
+        // Append full entry state, so replay is idempotent
+        try {
+            byte[] record = newRecord(uuid, entry);
+            journal.writeByteArray(record, MAX_RECORD_LENGTH);
+            journal.writeInt(getChecksum(record));
+            journalRecords++;
+            if (journalSync == JournalSync.ALWAYS) {
+                journal.flush();
+                journalChannel.force(false);
+            }
+        } catch (IOException e) {
+            LogHelper.error(e);
+        }
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal == null) {
+            return;
+        }
+
+        // Flush and sync before closing
+        try {
+            journal.flush();
+            journalChannel.force(false);
+        } finally {
+            journal.close();
+            journal = null;
+            journalChannel = null;
+        }
+    }
+
+    private void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            rotateJournal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Write snapshot (newer than rotated journal, which is fine as replay is idempotent)
+        writeAuthFileTmp();
+        try (FileChannel channel = FileChannel.open(fileTmp, StandardOpenOption.WRITE)) {
+            channel.force(false); // Journal will be deleted, so snapshot should be on disk
+        }
+        IOHelper.move(fileTmp, file);
+        Files.deleteIfExists(journalOldFile);
+    }
+
     private UUID genUUIDFor(String username) {
         if (offlineUUIDs) {
             UUID md5UUID = PlayerProfile.offlineUUID(username);
@@ -182,6 +308,131 @@ public abstract class FileAuthHandler extends AuthHandler {
         return uuid;
     }
 
+    private void journalLoop() {
+        while (!closed) {
+            try {
+                Thread.sleep(journalSyncInterval);
+            } catch (InterruptedException e) {
+                return; // Closing, close() compacts the rest
+            }
+
+            // Sync journal and compact if it's too big
+            try {
+                if (syncJournal()) {
+                    LogHelper.debug("Compacting auth handler journal");
+                    compact();
+                }
+            } catch (IOException e) {
+                LogHelper.error(e);
+            }
+        }
+    }
+
+    private void openJournal() throws IOException {
+        journalChannel = FileChannel.open(journalFile,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        journal = new HOutput(new BufferedOutputStream(Channels.newOutputStream(journalChannel), IOHelper.BUFFER_SIZE));
+        journalRecords = 0;
+    }
+
+    private boolean replayJournal(Path replayFile) {
+        if (!IOHelper.isFile(replayFile)) {
+            return false;
+        }
+
+        // Replay all fully written records (journal is compacted after, so invalid tail is dropped)
+        LogHelper.info("Replaying auth handler journal: '%s'", replayFile);
+        try (HInput input = new HInput(new BufferedInputStream(IOHelper.newInput(replayFile), IOHelper.BUFFER_SIZE))) {
+            while (true) {
+                byte[] record = input.readByteArray(MAX_RECORD_LENGTH);
+                if (input.readInt() != getChecksum(record)) {
+                    throw new IOException("Record checksum mismatch");
+                }
+
+                // Apply verified record
+                HInput recordInput = new HInput(record);
+                addAuth(recordInput.readUUID(), new Entry(recordInput));
+            }
+        } catch (EOFException ignored) {
+            // End of journal (or torn record)
+        } catch (IOException | RuntimeException e) {
+            LogHelper.warning("Auth handler journal is corrupted, dropping the rest: %s", e);
+        }
+        return true;
+    }
+
+    private void rotateJournal() throws IOException {
+        closeJournal();
+        if (IOHelper.exists(journalFile)) {
+            if (IOHelper.exists(journalOldFile)) { // Last compaction failed, keep records order
+                try (OutputStream output = IOHelper.newOutput(journalOldFile, true)) {
+                    IOHelper.transfer(journalFile, output);
+                }
+                Files.delete(journalFile);
+            } else {
+                IOHelper.move(journalFile, journalOldFile);
+            }
+        }
+
+        // Open new journal if not closing
+        if (!closed) {
+            openJournal();
+        }
+    }
+
+    private boolean syncJournal() throws IOException {
+        FileChannel channel;
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (journal == null) {
+                return false; // Journal is unavailable
+            }
+            journal.flush();
+            channel = journalChannel;
+            compact = journalRecords > Math.max(entryMap.size(), MIN_COMPACT_RECORDS);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Sync without holding the lock
+        if (journalSync == JournalSync.INTERVAL) {
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException ignored) {
+                // Rotated meanwhile (and synced on close)
+            }
+        }
+        return compact;
+    }
+
+    private static int getChecksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private static JournalSync getJournalSync(String name) {
+        switch (name) {
+            case "always":
+                return JournalSync.ALWAYS;
+            case "interval":
+                return JournalSync.INTERVAL;
+            case "none":
+                return JournalSync.NONE;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown journal sync policy: '%s'", name));
+        }
+    }
+
+    private static byte[] newRecord(UUID uuid, Entry entry) throws IOException {
+        try (HBufferOutput buffer = new HBufferOutput(); HOutput output = new HOutput(buffer)) {
+            output.writeUUID(uuid);
+            entry.write(output);
+            return buffer.toByteArray();
+        }
+    }
+
     public static final class Entry extends StreamObject {
         private String username;
         private String accessToken;
@@ -204,6 +455,12 @@ public abstract class FileAuthHandler extends AuthHandler {
             this.serverID = serverID == null ? null : JoinServerRequest.verifyServerID(serverID);
         }
 
+        private Entry(Entry entry) {
+            username = entry.username;
+            accessToken = entry.accessToken;
+            serverID = entry.serverID;
+        }
+
         @LauncherAPI
         public Entry(HInput input) throws IOException {
             username = VerifyHelper.verifyUsername(input.readString(64));
@@ -263,4 +520,10 @@ public abstract class FileAuthHandler extends AuthHandler {
             return true;
         }
     }
+
+    private enum JournalSync {
+        ALWAYS, // Flush and sync on each operation
+        INTERVAL, // Flush and sync periodically
+        NONE // Flush periodically, OS decides when to sync
+    }
 }
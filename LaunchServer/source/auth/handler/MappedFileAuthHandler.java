@@ -0,0 +1,398 @@
+package launchserver.auth.handler;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import launcher.LauncherAPI;
+import launcher.client.PlayerProfile;
+import launcher.helper.CommonHelper;
+import launcher.helper.IOHelper;
+import launcher.helper.LogHelper;
+import launcher.helper.SecurityHelper;
+import launcher.helper.VerifyHelper;
+import launcher.request.auth.JoinServerRequest;
+import launcher.serialize.config.entry.BlockConfigEntry;
+import launcher.serialize.config.entry.BooleanConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
+import launcher.serialize.config.entry.StringConfigEntry;
+import launchserver.auth.provider.AuthProviderResult;
+
+public final class MappedFileAuthHandler extends AuthHandler {
+    private static final int MAGIC = 0x4D414846; // "MAHF"
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 160;
+    private static final int MAX_CAPACITY = 1 << 23; // Power of two, slots + 2 tables of 2 ints each fit in 2 GiB
+
+    // Header layout
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_CAPACITY = 4;
+    private static final int HEADER_COUNT = 8;
+
+    // Slot layout
+    private static final int SLOT_FLAGS = 0;
+    private static final int SLOT_USERNAME_LENGTH = 1;
+    private static final int SLOT_SERVERID_LENGTH = 2;
+    private static final int SLOT_USERNAME_HASH = 4; // Of lowercase username
+    private static final int SLOT_UUID_MSB = 8;
+    private static final int SLOT_UUID_LSB = 16;
+    private static final int SLOT_ACCESS_TOKEN = 24;
+    private static final int SLOT_USERNAME = SLOT_ACCESS_TOKEN + SecurityHelper.TOKEN_LENGTH;
+    private static final int SLOT_SERVERID = SLOT_USERNAME + 64;
+    private static final int FLAG_ACCESS_TOKEN = 1;
+
+    // Config
+    @LauncherAPI public final Path file;
+    @LauncherAPI public final boolean offlineUUIDs;
+
+    // Instance
+    private final SecureRandom random = SecurityHelper.newRandom();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FileChannel channel;
+
+    // Mapping (header, slots, UUID table, username table)
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+
+    public MappedFileAuthHandler(BlockConfigEntry block) {
+        super(block);
+        file = IOHelper.toPath(block.getEntryValue("file", StringConfigEntry.class));
+        offlineUUIDs = block.getEntryValue("offlineUUIDs", BooleanConfigEntry.class);
+        int initialCapacity = block.hasEntry("initialCapacity") ? Integer.highestOneBit(VerifyHelper.verifyInt(
+            block.getEntryValue("initialCapacity", IntegerConfigEntry.class),
+            VerifyHelper.range(1, MAX_CAPACITY), "Illegal initialCapacity")) : 65536;
+
+        // Map auth handler file (nothing is read into heap)
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() == 0L) {
+                LogHelper.info("Creating mapped auth handler file: '%s'", file);
+                map(initialCapacity);
+                buffer.putInt(HEADER_MAGIC, MAGIC);
+                buffer.putInt(HEADER_CAPACITY, initialCapacity);
+                buffer.putInt(HEADER_COUNT, 0);
+            } else {
+                LogHelper.info("Mapping auth handler file: '%s'", file);
+                buffer = channel.map(MapMode.READ_WRITE, 0L, HEADER_SIZE);
+                if (buffer.getInt(HEADER_MAGIC) != MAGIC) {
+                    throw new IOException("Mapped auth handler file magic mismatch");
+                }
+                map(VerifyHelper.verifyInt(buffer.getInt(HEADER_CAPACITY), c -> c > 0 && c <= MAX_CAPACITY &&
+                    Integer.bitCount(c) == 1, "Illegal mapped auth handler file capacity"));
+            }
+            count = VerifyHelper.verifyInt(buffer.getInt(HEADER_COUNT),
+                VerifyHelper.range(0, capacity), "Illegal mapped auth handler file count");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public UUID auth(AuthProviderResult authResult) throws IOException {
+        String usernameLow = CommonHelper.low(authResult.username);
+        lock.writeLock().lock();
+        try {
+            int slot = findByUsername(usernameLow);
+
+            // Not registered? Fix it!
+            if (slot < 0) {
+                if (count >= capacity) {
+                    grow();
+                }
+                slot = addSlot(genUUIDFor(authResult.username), authResult.username);
+            }
+
+            // Authenticate (update username case)
+            int offset = slotOffset(slot);
+            buffer.put(offset + SLOT_SERVERID_LENGTH, (byte) 0);
+            putAccessToken(offset, authResult.accessToken);
+            putUsername(offset, authResult.username);
+            return getUUID(offset);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public UUID checkServer(String username, String serverID) {
+        lock.readLock().lock();
+        try {
+            int slot = findByUsername(CommonHelper.low(username));
+            if (slot < 0) {
+                return null;
+            }
+
+            // Check server
+            int offset = slotOffset(slot);
+            return username.equals(getUsername(offset)) && serverID.equals(getServerID(offset)) ?
+                getUUID(offset) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean joinServer(String username, String accessToken, String serverID) {
+        lock.writeLock().lock();
+        try {
+            int slot = findByUsername(CommonHelper.low(username));
+            if (slot < 0) {
+                return false;
+            }
+
+            // Check username and access token
+            int offset = slotOffset(slot);
+            if (!username.equals(getUsername(offset)) || !accessToken.equals(getAccessToken(offset))) {
+                return false;
+            }
+
+            // Update server ID
+            byte[] serverIDBytes = JoinServerRequest.verifyServerID(serverID).getBytes(StandardCharsets.US_ASCII);
+            putBytes(offset + SLOT_SERVERID, serverIDBytes);
+            buffer.put(offset + SLOT_SERVERID_LENGTH, (byte) serverIDBytes.length);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public UUID usernameToUUID(String username) {
+        lock.readLock().lock();
+        try {
+            int slot = findByUsername(CommonHelper.low(username));
+            return slot < 0 ? null : getUUID(slotOffset(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String uuidToUsername(UUID uuid) {
+        lock.readLock().lock();
+        try {
+            int slot = findByUUID(uuid);
+            return slot < 0 ? null : getUsername(slotOffset(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @LauncherAPI
+    public int getCount() {
+        return count;
+    }
+
+    private int addSlot(UUID uuid, String username) {
+        int slot = count;
+        int offset = slotOffset(slot);
+        for (int i = 0; i < SLOT_SIZE; i++) {
+            buffer.put(offset + i, (byte) 0);
+        }
+
+        // Write slot before making it visible in tables
+        buffer.putLong(offset + SLOT_UUID_MSB, uuid.getMostSignificantBits());
+        buffer.putLong(offset + SLOT_UUID_LSB, uuid.getLeastSignificantBits());
+        putUsername(offset, username);
+        insert(slot);
+        count = slot + 1;
+        buffer.putInt(HEADER_COUNT, count);
+        return slot;
+    }
+
+    private int findByUUID(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int tableOffset = uuidTableOffset(capacity);
+        int mask = (capacity << 1) - 1;
+        for (int i = mix(Long.hashCode(msb ^ lsb)) & mask; ; i = i + 1 & mask) {
+            int id = buffer.getInt(tableOffset + (i << 2));
+            if (id == 0) {
+                return -1; // Empty bucket, no such UUID
+            }
+
+            // Compare UUID
+            int offset = slotOffset(id - 1);
+            if (buffer.getLong(offset + SLOT_UUID_MSB) == msb && buffer.getLong(offset + SLOT_UUID_LSB) == lsb) {
+                return id - 1;
+            }
+        }
+    }
+
+    private int findByUsername(String usernameLow) {
+        int hash = usernameLow.hashCode();
+        int tableOffset = usernameTableOffset(capacity);
+        int mask = (capacity << 1) - 1;
+        for (int i = mix(hash) & mask; ; i = i + 1 & mask) {
+            int id = buffer.getInt(tableOffset + (i << 2));
+            if (id == 0) {
+                return -1; // Empty bucket, no such username
+            }
+
+            // Compare hash first, so usernames are rarely decoded
+            int offset = slotOffset(id - 1);
+            if (buffer.getInt(offset + SLOT_USERNAME_HASH) == hash &&
+                usernameLow.equals(CommonHelper.low(getUsername(offset)))) {
+                return id - 1;
+            }
+        }
+    }
+
+    private UUID genUUIDFor(String username) {
+        if (offlineUUIDs) {
+            UUID md5UUID = PlayerProfile.offlineUUID(username);
+            if (findByUUID(md5UUID) < 0) {
+                return md5UUID;
+            }
+            LogHelper.warning("Offline UUID collision, using random: '%s'", username);
+        }
+
+        // Pick random UUID
+        UUID uuid;
+        do {
+            uuid = new UUID(random.nextLong(), random.nextLong());
+        } while (findByUUID(uuid) >= 0);
+        return uuid;
+    }
+
+    private String getAccessToken(int offset) {
+        if ((buffer.get(offset + SLOT_FLAGS) & FLAG_ACCESS_TOKEN) == 0) {
+            return null;
+        }
+        return SecurityHelper.toHex(getBytes(offset + SLOT_ACCESS_TOKEN, SecurityHelper.TOKEN_LENGTH));
+    }
+
+    private byte[] getBytes(int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return bytes;
+    }
+
+    private String getServerID(int offset) {
+        int length = Byte.toUnsignedInt(buffer.get(offset + SLOT_SERVERID_LENGTH));
+        return length == 0 ? null : new String(getBytes(offset + SLOT_SERVERID, length), StandardCharsets.US_ASCII);
+    }
+
+    private UUID getUUID(int offset) {
+        return new UUID(buffer.getLong(offset + SLOT_UUID_MSB), buffer.getLong(offset + SLOT_UUID_LSB));
+    }
+
+    private String getUsername(int offset) {
+        int length = Byte.toUnsignedInt(buffer.get(offset + SLOT_USERNAME_LENGTH));
+        return new String(getBytes(offset + SLOT_USERNAME, length), StandardCharsets.UTF_8);
+    }
+
+    private void grow() throws IOException {
+        int newCapacity = (int) Math.min((long) capacity << 1, MAX_CAPACITY);
+        if (newCapacity <= capacity) {
+            throw new IOException("Mapped auth handler file is full");
+        }
+        LogHelper.info("Growing mapped auth handler file: %d -> %d slots", capacity, newCapacity);
+
+        // Remap bigger file (and clear tables, previous grow could be interrupted)
+        buffer.force();
+        map(newCapacity);
+        for (int i = uuidTableOffset(capacity); i < buffer.limit(); i += Long.BYTES) {
+            buffer.putLong(i, 0L);
+        }
+        for (int slot = 0; slot < count; slot++) {
+            insert(slot);
+        }
+
+        // Publish new capacity only when tables are rebuilt (old tables are intact till then)
+        buffer.force();
+        buffer.putInt(HEADER_CAPACITY, newCapacity);
+        buffer.force();
+    }
+
+    private void insert(int slot) {
+        int offset = slotOffset(slot);
+        int mask = (capacity << 1) - 1;
+
+        // Insert to UUID table
+        long msb = buffer.getLong(offset + SLOT_UUID_MSB);
+        long lsb = buffer.getLong(offset + SLOT_UUID_LSB);
+        int uuidTableOffset = uuidTableOffset(capacity);
+        int i = mix(Long.hashCode(msb ^ lsb)) & mask;
+        while (buffer.getInt(uuidTableOffset + (i << 2)) != 0) {
+            i = i + 1 & mask;
+        }
+        buffer.putInt(uuidTableOffset + (i << 2), slot + 1);
+
+        // Insert to username table
+        int usernameTableOffset = usernameTableOffset(capacity);
+        i = mix(buffer.getInt(offset + SLOT_USERNAME_HASH)) & mask;
+        while (buffer.getInt(usernameTableOffset + (i << 2)) != 0) {
+            i = i + 1 & mask;
+        }
+        buffer.putInt(usernameTableOffset + (i << 2), slot + 1);
+    }
+
+    private void map(int newCapacity) throws IOException {
+        long size = (long) usernameTableOffset(newCapacity) + ((long) newCapacity << 3);
+        buffer = channel.map(MapMode.READ_WRITE, 0L, size);
+        capacity = newCapacity;
+    }
+
+    private void putAccessToken(int offset, String accessToken) {
+        String token = SecurityHelper.verifyToken(accessToken);
+        for (int i = 0; i < SecurityHelper.TOKEN_LENGTH; i++) {
+            int b = Character.digit(token.charAt(i << 1), 16) << 4 | Character.digit(token.charAt((i << 1) + 1), 16);
+            buffer.put(offset + SLOT_ACCESS_TOKEN + i, (byte) b);
+        }
+        buffer.put(offset + SLOT_FLAGS, (byte) (buffer.get(offset + SLOT_FLAGS) | FLAG_ACCESS_TOKEN));
+    }
+
+    private void putBytes(int offset, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(offset + i, bytes[i]);
+        }
+    }
+
+    private void putUsername(int offset, String username) {
+        byte[] usernameBytes = VerifyHelper.verifyUsername(username).getBytes(StandardCharsets.UTF_8);
+        VerifyHelper.verifyInt(usernameBytes.length, VerifyHelper.range(1, 64), "Username is too long");
+        putBytes(offset + SLOT_USERNAME, usernameBytes);
+        buffer.put(offset + SLOT_USERNAME_LENGTH, (byte) usernameBytes.length);
+        buffer.putInt(offset + SLOT_USERNAME_HASH, CommonHelper.low(username).hashCode());
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9; // Fibonacci hashing, so sequential hashes don't cluster
+        return h ^ h >>> 16;
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static int usernameTableOffset(int capacity) {
+        return uuidTableOffset(capacity) + (capacity << 3);
+    }
+
+    private static int uuidTableOffset(int capacity) {
+        return HEADER_SIZE + capacity * SLOT_SIZE;
+    }
+}
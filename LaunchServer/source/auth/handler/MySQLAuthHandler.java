@@ -6,12 +6,19 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
+import launcher.helper.CommonHelper;
 import launcher.helper.LogHelper;
 import launcher.helper.VerifyHelper;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.BooleanConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
 import launchserver.auth.MySQLSourceConfig;
 
@@ -28,6 +35,16 @@ public final class MySQLAuthHandler extends CachedAuthHandler {
     private final String updateAuthSQL;
     private final String updateServerIDSQL;
 
+    // Write-behind (updates are applied to cache at once and flushed in batches)
+    private final boolean writeBehind;
+    private final int writeBehindInterval;
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>(64);
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile Map<UUID, Pending> flushing = Collections.emptyMap();
+    private volatile long flushes; // Incremented after each flush, so fetch can detect race
+    private final Thread flushThread;
+    private volatile boolean closed;
+
     public MySQLAuthHandler(BlockConfigEntry block) {
         super(block);
         mySQLHolder = new MySQLSourceConfig("authHandlerPool", block);
@@ -54,6 +71,12 @@ public final class MySQLAuthHandler extends CachedAuthHandler {
         updateServerIDSQL = String.format("UPDATE %s SET %s=? WHERE %s=? LIMIT 1",
             table, serverIDColumn, uuidColumn);
 
+        // Read write-behind params
+        writeBehind = block.hasEntry("writeBehind") && block.getEntryValue("writeBehind", BooleanConfigEntry.class);
+        writeBehindInterval = block.hasEntry("writeBehindInterval") ? VerifyHelper.verifyInt(
+            block.getEntryValue("writeBehindInterval", IntegerConfigEntry.class),
+            VerifyHelper.POSITIVE, "writeBehindInterval can't be <= 0") : 1000;
+
         // Fetch all entries
         if (block.getEntryValue("fetchAll", BooleanConfigEntry.class)) {
             LogHelper.info("Fetching all AuthHandler entries");
@@ -68,10 +91,28 @@ public final class MySQLAuthHandler extends CachedAuthHandler {
                 LogHelper.error(e);
             }
         }
+
+        // Start flushing pending updates
+        flushThread = writeBehind ? CommonHelper.newThread("AuthHandler Flush Thread", true, this::flushLoop) : null;
+        if (flushThread != null) {
+            flushThread.start();
+        }
     }
 
     @Override
     public void close() {
+        closed = true;
+        if (flushThread != null) {
+            flushThread.interrupt();
+            try {
+                flushThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Flush what's left and close pool
+        flush();
         mySQLHolder.close();
     }
 
@@ -87,6 +128,12 @@ public final class MySQLAuthHandler extends CachedAuthHandler {
 
     @Override
     protected boolean updateAuth(UUID uuid, String username, String accessToken) throws IOException {
+        if (writeBehind) { // Resets pending server ID too
+            pending.put(uuid, new Pending(true, username, accessToken, null));
+            return true;
+        }
+
+        // Update immediately
         try (Connection c = mySQLHolder.getConnection(); PreparedStatement s = c.prepareStatement(updateAuthSQL)) {
             s.setString(1, username); // Username case
             s.setString(2, accessToken);
@@ -102,6 +149,14 @@ public final class MySQLAuthHandler extends CachedAuthHandler {
 
     @Override
     protected boolean updateServerID(UUID uuid, String serverID) throws IOException {
+        if (writeBehind) { // Keep pending auth update, if any
+            pending.compute(uuid, (k, previous) -> previous == null || !previous.auth ?
+                new Pending(false, null, null, serverID) :
+                new Pending(true, previous.username, previous.accessToken, serverID));
+            return true;
+        }
+
+        // Update immediately
         try (Connection c = mySQLHolder.getConnection(); PreparedStatement s = c.prepareStatement(updateServerIDSQL)) {
             s.setString(1, serverID);
             s.setString(2, uuid.toString());
@@ -115,21 +170,133 @@ public final class MySQLAuthHandler extends CachedAuthHandler {
     }
 
     private Entry constructEntry(ResultSet set) throws SQLException {
-        return set.next() ? new Entry(UUID.fromString(set.getString(uuidColumn)), set.getString(usernameColumn),
-            set.getString(accessTokenColumn), set.getString(serverIDColumn)) : null;
+        if (!set.next()) {
+            return null;
+        }
+
+        // Read entry columns
+        UUID uuid = UUID.fromString(set.getString(uuidColumn));
+        String username = set.getString(usernameColumn);
+        String accessToken = set.getString(accessTokenColumn);
+        String serverID = set.getString(serverIDColumn);
+
+        // Apply not yet flushed updates
+        Pending update = pending.get(uuid);
+        if (update == null) {
+            update = flushing.get(uuid);
+        }
+        if (update != null) {
+            if (update.auth) {
+                username = update.username;
+                accessToken = update.accessToken;
+            }
+            serverID = update.serverID;
+        }
+        return new Entry(uuid, username, accessToken, serverID);
+    }
+
+    private void flush() {
+        flushLock.lock(); // Flush thread and close() could flush concurrently
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            // Take pending updates (newer ones will go to the next batch)
+            Map<UUID, Pending> batch = new HashMap<>(pending.size());
+            for (UUID uuid : pending.keySet()) {
+                Pending update = pending.remove(uuid);
+                if (update != null) {
+                    batch.put(uuid, update);
+                }
+            }
+            flushing = batch;
+
+            // Execute batched updates (auth first, as it resets server ID)
+            try (Connection c = mySQLHolder.getConnection(); PreparedStatement authS = c.prepareStatement(updateAuthSQL);
+                PreparedStatement serverIDS = c.prepareStatement(updateServerIDSQL)) {
+                for (Map.Entry<UUID, Pending> entry : batch.entrySet()) {
+                    Pending update = entry.getValue();
+                    if (update.auth) {
+                        authS.setString(1, update.username);
+                        authS.setString(2, update.accessToken);
+                        authS.setString(3, entry.getKey().toString());
+                        authS.addBatch();
+                    }
+                    if (update.serverID != null) {
+                        serverIDS.setString(1, update.serverID);
+                        serverIDS.setString(2, entry.getKey().toString());
+                        serverIDS.addBatch();
+                    }
+                }
+
+                // Execute batches
+                authS.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
+                authS.executeBatch();
+                serverIDS.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
+                serverIDS.executeBatch();
+            } catch (SQLException e) {
+                LogHelper.error(e);
+
+                // Return failed updates, unless overwritten meanwhile
+                for (Map.Entry<UUID, Pending> entry : batch.entrySet()) {
+                    Pending failed = entry.getValue();
+                    pending.compute(entry.getKey(), (k, newer) -> newer == null ? failed : newer.auth ||
+                        !failed.auth ? newer : new Pending(true, failed.username, failed.accessToken, newer.serverID));
+                }
+            } finally {
+                flushing = Collections.emptyMap();
+                flushes++; // Only modified under lock
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            try {
+                Thread.sleep(writeBehindInterval);
+            } catch (InterruptedException e) {
+                return; // Closing, close() flushes the rest
+            }
+            flush();
+        }
     }
 
     private Entry query(String sql, String value) throws IOException {
-        try (Connection c = mySQLHolder.getConnection(); PreparedStatement s = c.prepareStatement(sql)) {
-            s.setString(1, value);
+        while (true) {
+            long flushes = this.flushes;
+            try (Connection c = mySQLHolder.getConnection(); PreparedStatement s = c.prepareStatement(sql)) {
+                s.setString(1, value);
 
-            // Execute query
-            s.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
-            try (ResultSet set = s.executeQuery()) {
-                return constructEntry(set);
+                // Execute query
+                s.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
+                try (ResultSet set = s.executeQuery()) {
+                    Entry entry = constructEntry(set);
+                    if (flushes == this.flushes) {
+                        return entry;
+                    }
+
+                    // Flush completed while querying, pending updates may be lost
+                }
+            } catch (SQLException e) {
+                throw new IOException(e);
             }
-        } catch (SQLException e) {
-            throw new IOException(e);
+        }
+    }
+
+    private static final class Pending {
+        private final boolean auth;
+        private final String username;
+        private final String accessToken;
+        private final String serverID;
+
+        private Pending(boolean auth, String username, String accessToken, String serverID) {
+            this.auth = auth;
+            this.username = username;
+            this.accessToken = accessToken;
+            this.serverID = serverID;
         }
     }
 }
@@ -4,6 +4,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -18,19 +19,27 @@ import launcher.serialize.config.TextConfigReader;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.ConfigEntry;
 import launcher.serialize.config.entry.ConfigEntry.Type;
+import launcher.serialize.config.entry.IntegerConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
 
 public final class FileAuthProvider extends DigestAuthProvider {
     private final Path file;
+    private final int reloadInterval;
 
-    // Cache
-    private final Map<String, Entry> entries = new HashMap<>(256);
-    private final Object cacheLock = new Object();
+    // Cache (rebuilt on side and published at once, so auth doesn't lock)
+    private volatile Map<String, Entry> entries = Collections.emptyMap();
     private FileTime cacheLastModified;
 
+    // Reloading
+    private final Thread reloadThread;
+    private volatile boolean closed;
+
     public FileAuthProvider(BlockConfigEntry block) {
         super(block);
         file = IOHelper.toPath(block.getEntryValue("file", StringConfigEntry.class));
+        reloadInterval = block.hasEntry("reloadInterval") ? VerifyHelper.verifyInt(
+            block.getEntryValue("reloadInterval", IntegerConfigEntry.class),
+            VerifyHelper.POSITIVE, "reloadInterval can't be <= 0") : 1000;
 
         // Try to update cache
         try {
@@ -38,15 +47,15 @@ public final class FileAuthProvider extends DigestAuthProvider {
         } catch (IOException e) {
             LogHelper.error(e);
         }
+
+        // Start checking for modifications
+        reloadThread = CommonHelper.newThread("AuthProvider Reload Thread", true, this::reloadLoop);
+        reloadThread.start();
     }
 
     @Override
     public AuthProviderResult auth(String login, String password, String ip) throws IOException {
-        Entry entry;
-        synchronized (cacheLock) {
-            updateCache();
-            entry = entries.get(CommonHelper.low(login));
-        }
+        Entry entry = entries.get(CommonHelper.low(login));
 
         // Verify digest and return true username
         verifyDigest(entry == null ? null : entry.password, password);
@@ -60,7 +69,25 @@ public final class FileAuthProvider extends DigestAuthProvider {
 
     @Override
     public void close() {
-        // Do nothing
+        closed = true;
+        reloadThread.interrupt();
+    }
+
+    private void reloadLoop() {
+        while (!closed) {
+            try {
+                Thread.sleep(reloadInterval);
+            } catch (InterruptedException e) {
+                return; // Closing
+            }
+
+            // Reload if modified (old entries are kept on error)
+            try {
+                updateCache();
+            } catch (IOException | RuntimeException e) {
+                LogHelper.error(e);
+            }
+        }
     }
 
     private void updateCache() throws IOException {
@@ -68,6 +95,7 @@ public final class FileAuthProvider extends DigestAuthProvider {
         if (lastModified.equals(cacheLastModified)) {
             return; // Not modified, so cache is up-to-date
         }
+        cacheLastModified = lastModified; // Don't retry broken file until modified again
 
         // Read file
         LogHelper.info("Recaching auth provider file: '%s'", file);
@@ -77,7 +105,7 @@ public final class FileAuthProvider extends DigestAuthProvider {
         }
 
         // Read entries from config block
-        entries.clear();
+        Map<String, Entry> newEntries = new HashMap<>(256);
         Set<Map.Entry<String, ConfigEntry<?>>> entrySet = authFile.getValue().entrySet();
         for (Map.Entry<String, ConfigEntry<?>> entry : entrySet) {
             String login = entry.getKey();
@@ -86,12 +114,12 @@ public final class FileAuthProvider extends DigestAuthProvider {
 
             // Add auth entry
             Entry auth = new Entry((BlockConfigEntry) value);
-            VerifyHelper.putIfAbsent(entries, CommonHelper.low(login), auth,
+            VerifyHelper.putIfAbsent(newEntries, CommonHelper.low(login), auth,
                 String.format("Duplicate login: '%s'", login));
         }
 
-        // Update last modified time
-        cacheLastModified = lastModified;
+        // Publish entries
+        entries = Collections.unmodifiableMap(newEntries);
     }
 
     private static final class Entry extends ConfigObject {
@@ -1,32 +1,69 @@
 package launchserver.auth.provider;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import launcher.helper.CommonHelper;
 import launcher.helper.IOHelper;
+import launcher.helper.LogHelper;
 import launcher.helper.SecurityHelper;
+import launcher.helper.VerifyHelper;
 import launcher.serialize.config.entry.BlockConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
 
 public final class RequestAuthProvider extends AuthProvider {
     private final String url;
     private final Pattern response;
 
+    // Request params
+    private final int timeout;
+    private final int busyTimeout;
+    private final Semaphore requests;
+
     public RequestAuthProvider(BlockConfigEntry block) {
         super(block);
         url = block.getEntryValue("url", StringConfigEntry.class);
         response = Pattern.compile(block.getEntryValue("response", StringConfigEntry.class));
 
+        // Read request params
+        timeout = block.hasEntry("timeout") ? VerifyHelper.verifyInt(
+            block.getEntryValue("timeout", IntegerConfigEntry.class),
+            VerifyHelper.POSITIVE, "timeout can't be <= 0") : IOHelper.HTTP_TIMEOUT;
+        busyTimeout = block.hasEntry("busyTimeout") ? VerifyHelper.verifyInt(
+            block.getEntryValue("busyTimeout", IntegerConfigEntry.class),
+            VerifyHelper.NOT_NEGATIVE, "busyTimeout can't be < 0") : 1000;
+        requests = new Semaphore(block.hasEntry("maxRequests") ? VerifyHelper.verifyInt(
+            block.getEntryValue("maxRequests", IntegerConfigEntry.class),
+            VerifyHelper.POSITIVE, "maxRequests can't be <= 0") : 16);
+
         // Verify is valid URL
         IOHelper.verifyURL(getFormattedURL("urlAuthLogin", "urlAuthPassword", "urlAuthIP"));
     }
 
     @Override
     public AuthProviderResult auth(String login, String password, String ip) throws IOException {
-        String currentResponse = IOHelper.request(new URL(getFormattedURL(login, password, ip)));
+        String currentResponse;
+        try {
+            if (!requests.tryAcquire(busyTimeout, TimeUnit.MILLISECONDS)) {
+                return authError("Auth server is busy, try again later"); // Fail fast, don't pile up responses
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        try {
+            currentResponse = request(new URL(getFormattedURL(login, password, ip)));
+        } finally {
+            requests.release();
+        }
 
         // Match username
         Matcher matcher = response.matcher(currentResponse);
@@ -43,4 +80,31 @@ public final class RequestAuthProvider extends AuthProvider {
     private String getFormattedURL(String login, String password, String ip) {
         return CommonHelper.replace(url, "login", IOHelper.urlEncode(login), "password", IOHelper.urlEncode(password), "ip", IOHelper.urlEncode(ip));
     }
+
+    private String request(URL url) throws IOException {
+        URLConnection connection = IOHelper.newConnection(url);
+        connection.setConnectTimeout(timeout);
+        connection.setReadTimeout(timeout);
+
+        // Read whole response, so connection could be reused (idle connections per host are
+        // JVM-wide, limited by -Dhttp.maxConnections, 5 by default)
+        try (InputStream input = connection.getInputStream()) {
+            return IOHelper.decode(IOHelper.read(input)).trim();
+        } catch (IOException e) {
+            if (connection instanceof HttpURLConnection) {
+                drainErrorStream((HttpURLConnection) connection);
+            }
+            throw e;
+        }
+    }
+
+    private static void drainErrorStream(HttpURLConnection connection) {
+        try (InputStream error = connection.getErrorStream()) {
+            if (error != null) {
+                IOHelper.read(error);
+            }
+        } catch (IOException e) {
+            LogHelper.debug("Can't drain error stream: %s", e);
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package launchserver.command.auth;
+
+import launcher.helper.LogHelper;
+import launchserver.LaunchServer;
+import launchserver.auth.handler.AuthHandler;
+import launchserver.auth.handler.CachedAuthHandler;
+import launchserver.command.Command;
+import launchserver.command.CommandException;
+
+public final class AuthCacheStatsCommand extends Command {
+    public AuthCacheStatsCommand(LaunchServer server) {
+        super(server);
+    }
+
+    @Override
+    public String getArgsDescription() {
+        return null;
+    }
+
+    @Override
+    public String getUsageDescription() {
+        return "Print auth handler cache stats";
+    }
+
+    @Override
+    public void invoke(String... args) throws CommandException {
+        AuthHandler authHandler = server.config.authHandler;
+        if (!(authHandler instanceof CachedAuthHandler)) {
+            throw new CommandException("Auth handler is not cached");
+        }
+
+        // Print cache stats
+        CachedAuthHandler cachedAuthHandler = (CachedAuthHandler) authHandler;
+        long hits = cachedAuthHandler.getCacheHits();
+        long misses = cachedAuthHandler.getCacheMisses();
+        long requests = hits + misses;
+        LogHelper.subInfo("Cache size: %d", cachedAuthHandler.getCacheSize());
+        LogHelper.subInfo("Hits: %d, misses: %d (%.1f%% hit rate)", hits, misses,
+            requests == 0L ? 0.0D : hits * 100.0D / requests);
+        LogHelper.subInfo("Evictions: %d", cachedAuthHandler.getCacheEvictions());
+    }
+}
@@ -15,6 +15,7 @@ import launcher.helper.VerifyHelper;
 import launchserver.LaunchServer;
 import launchserver.command.Command;
 import launchserver.command.CommandException;
+import launchserver.command.auth.AuthCacheStatsCommand;
 import launchserver.command.auth.AuthCommand;
 import launchserver.command.auth.CheckServerCommand;
 import launchserver.command.auth.JoinServerCommand;
@@ -70,6 +71,7 @@ public abstract class CommandHandler implements Runnable {
         registerCommand("checkServer", new CheckServerCommand(server));
         registerCommand("usernameToUUID", new UsernameToUUIDCommand(server));
         registerCommand("uuidToUsername", new UUIDToUsernameCommand(server));
+        registerCommand("authCacheStats", new AuthCacheStatsCommand(server));
 
         // Register legacy commands
         registerCommand("dumpBinaryAuthHandler", new DumpBinaryAuthHandler(server));
@@ -1,5 +1,7 @@
 package launchserver.response;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.net.Socket;
@@ -37,6 +39,7 @@ public final class ResponseThread implements Runnable {
 
         // Fix socket flags
         IOHelper.setSocketFlags(socket);
+        socket.setTcpNoDelay(true); // Streams are buffered and flushed explicitly
     }
 
     @Override
@@ -48,8 +51,8 @@ public final class ResponseThread implements Runnable {
         // Process connection
         boolean cancelled = false;
         Throwable savedError = null;
-        try (HInput input = new HInput(socket.getInputStream());
-            HOutput output = new HOutput(socket.getOutputStream())) {
+        try (HInput input = new HInput(new BufferedInputStream(socket.getInputStream(), IOHelper.BUFFER_SIZE));
+            HOutput output = new HOutput(new BufferedOutputStream(socket.getOutputStream(), IOHelper.BUFFER_SIZE))) {
             Type type = readHandshake(input, output);
             if (type == null) { // Not accepted
                 cancelled = true;
@@ -63,6 +66,7 @@ public final class ResponseThread implements Runnable {
                 LogHelper.subDebug(String.format("#%d Request error: %s", id, e.getMessage()));
                 output.writeString(e.getMessage(), 0);
             }
+            output.flush();
         } catch (Throwable exc) {
             savedError = exc;
             LogHelper.error(exc);
@@ -137,7 +141,7 @@ public final class ResponseThread implements Runnable {
                 response = new LauncherResponse(server, id, input, output);
                 break;
             case UPDATE:
-                response = new UpdateResponse(server, id, input, output);
+                response = new UpdateResponse(server, id, input, output, socket.getChannel());
                 break;
             case UPDATE_LIST:
                 response = new UpdateListResponse(server, id, input, output);
@@ -0,0 +1,135 @@
+package launchserver.response;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import launcher.helper.IOHelper;
+import launcher.helper.LogHelper;
+import launchserver.LaunchServer;
+
+/*package*/ final class SelectorThread implements Runnable, AutoCloseable {
+    private final LaunchServer server;
+    private final Executor workers;
+    private final Selector selector;
+
+    // Channels waiting for registration
+    private final Queue<Connection> pending = new ConcurrentLinkedQueue<>();
+
+    /*package*/ SelectorThread(LaunchServer server, Executor workers) throws IOException {
+        this.server = server;
+        this.workers = workers;
+        selector = Selector.open();
+    }
+
+    @Override
+    public void close() throws IOException {
+        selector.close();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (selector.isOpen()) {
+                selector.select(IOHelper.SOCKET_TIMEOUT);
+                registerPending();
+
+                // Collect readable connections (handshake has arrived)
+                Queue<Connection> ready = new LinkedList<>();
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+                    key.cancel();
+                    ready.add((Connection) key.attachment());
+                }
+
+                // Drop connections that never sent anything
+                long now = System.currentTimeMillis();
+                for (SelectionKey key : selector.keys()) {
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isValid() && now - connection.registered >= IOHelper.SOCKET_TIMEOUT) {
+                        key.cancel();
+                        IOHelper.close(connection.channel);
+                        server.serverSocketHandler.onDisconnect(connection.id, new SocketTimeoutException("Handshake timed out"));
+                    }
+                }
+
+                // Flush cancelled keys, so channels could be switched back to blocking mode
+                if (!ready.isEmpty()) {
+                    selector.selectNow();
+                    for (Connection connection : ready) {
+                        dispatch(connection);
+                    }
+                }
+            }
+        } catch (ClosedSelectorException ignored) {
+            // Do nothing (closed on rebind)
+        } catch (IOException e) {
+            LogHelper.error(e);
+        } finally {
+            closePending();
+        }
+    }
+
+    /*package*/ void register(long id, SocketChannel channel) {
+        pending.add(new Connection(id, channel));
+        selector.wakeup();
+    }
+
+    private void closePending() {
+        for (Connection connection = pending.poll(); connection != null; connection = pending.poll()) {
+            IOHelper.close(connection.channel);
+        }
+        if (selector.isOpen()) {
+            IOHelper.close(selector);
+        }
+    }
+
+    private void dispatch(Connection connection) {
+        try {
+            connection.channel.configureBlocking(true);
+            workers.execute(new ResponseThread(server, connection.id, connection.channel.socket()));
+        } catch (RejectedExecutionException e) { // Fail fast, client would time out in queue anyway
+            IOHelper.close(connection.channel);
+            server.serverSocketHandler.onDisconnect(connection.id, e);
+            LogHelper.warning("#%d Connection rejected, all %d NIO workers are busy", connection.id, server.config.nioWorkers);
+        } catch (Throwable exc) {
+            IOHelper.close(connection.channel);
+            server.serverSocketHandler.onDisconnect(connection.id, exc);
+            LogHelper.error(exc);
+        }
+    }
+
+    private void registerPending() {
+        for (Connection connection = pending.poll(); connection != null; connection = pending.poll()) {
+            try {
+                connection.channel.configureBlocking(false);
+                connection.channel.register(selector, SelectionKey.OP_READ, connection);
+            } catch (IOException e) {
+                IOHelper.close(connection.channel);
+                server.serverSocketHandler.onDisconnect(connection.id, e);
+            }
+        }
+    }
+
+    private static final class Connection {
+        private final long id;
+        private final SocketChannel channel;
+        private final long registered = System.currentTimeMillis();
+
+        private Connection(long id, SocketChannel channel) {
+            this.id = id;
+            this.channel = channel;
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package launchserver.response;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -30,7 +38,7 @@ public final class ServerSocketHandler implements Runnable, AutoCloseable {
     // Instance
     private final LaunchServer server;
     private final AtomicReference<ServerSocket> serverSocket = new AtomicReference<>();
-    private final ExecutorService threadPool = Executors.newCachedThreadPool(THREAD_FACTORY);
+    private final ExecutorService threadPool;
 
     // API
     private final Map<String, Factory> customResponses = new ConcurrentHashMap<>(2);
@@ -39,6 +47,7 @@ public final class ServerSocketHandler implements Runnable, AutoCloseable {
 
     public ServerSocketHandler(LaunchServer server) {
         this.server = server;
+        threadPool = newThreadPool(server.config);
     }
 
     @Override
@@ -57,30 +66,11 @@ public final class ServerSocketHandler implements Runnable, AutoCloseable {
     @Override
     public void run() {
         LogHelper.info("Starting server socket thread");
-        try (ServerSocket serverSocket = new ServerSocket()) {
-            if (!this.serverSocket.compareAndSet(null, serverSocket)) {
-                throw new IllegalStateException("Previous socket wasn't closed");
-            }
-
-            // Set socket params
-            serverSocket.setReuseAddress(true);
-            serverSocket.setPerformancePreferences(1, 0, 2);
-            //serverSocket.setReceiveBufferSize(0x10000);
-            serverSocket.bind(server.config.getSocketAddress());
-            LogHelper.info("Server socket thread successfully started");
-
-            // Listen for incoming connections
-            while (serverSocket.isBound()) {
-                Socket socket = serverSocket.accept();
-
-                // Invoke pre-connect listener
-                long id = idCounter.incrementAndGet();
-                if (listener != null && !listener.onConnect(id, socket.getInetAddress())) {
-                    continue; // Listener didn't accepted this connection
-                }
-
-                // Reply in separate thread
-                threadPool.execute(new ResponseThread(server, id, socket));
+        try {
+            if (server.config.nio) {
+                runSelectors();
+            } else {
+                runBlocking();
             }
         } catch (IOException e) {
             // Ignore error after close/rebind
@@ -119,6 +109,93 @@ public final class ServerSocketHandler implements Runnable, AutoCloseable {
         return listener == null || listener.onHandshake(id, type);
     }
 
+    private void bind(ServerSocket serverSocket) throws IOException {
+        if (!this.serverSocket.compareAndSet(null, serverSocket)) {
+            throw new IllegalStateException("Previous socket wasn't closed");
+        }
+
+        // Set socket params
+        serverSocket.setReuseAddress(true);
+        serverSocket.setPerformancePreferences(1, 0, 2);
+        //serverSocket.setReceiveBufferSize(0x10000);
+        serverSocket.bind(server.config.getSocketAddress());
+        LogHelper.info("Server socket thread successfully started");
+    }
+
+    private void runBlocking() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket()) {
+            bind(serverSocket);
+
+            // Listen for incoming connections
+            while (serverSocket.isBound()) {
+                Socket socket = serverSocket.accept();
+
+                // Invoke pre-connect listener
+                long id = idCounter.incrementAndGet();
+                if (listener != null && !listener.onConnect(id, socket.getInetAddress())) {
+                    continue; // Listener didn't accepted this connection
+                }
+
+                // Reply in separate thread
+                threadPool.execute(new ResponseThread(server, id, socket));
+            }
+        }
+    }
+
+    private void runSelectors() throws IOException {
+        SelectorThread[] selectors = new SelectorThread[server.config.nioSelectors];
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            bind(serverChannel.socket());
+
+            // Start I/O event loops
+            for (int i = 0; i < selectors.length; i++) {
+                selectors[i] = new SelectorThread(server, threadPool);
+                CommonHelper.newThread("Selector Thread #" + i, true, selectors[i]).start();
+            }
+
+            // Listen for incoming connections
+            int next = 0;
+            while (serverChannel.isOpen()) {
+                SocketChannel channel = serverChannel.accept();
+
+                // Invoke pre-connect listener
+                long id = idCounter.incrementAndGet();
+                if (listener != null && !listener.onConnect(id, channel.socket().getInetAddress())) {
+                    channel.close();
+                    continue; // Listener didn't accepted this connection
+                }
+
+                // Wait for handshake in event loop (round-robin)
+                selectors[next].register(id, channel);
+                next = (next + 1) % selectors.length;
+            }
+        } finally {
+            for (SelectorThread selector : selectors) {
+                if (selector != null) {
+                    selector.close();
+                }
+            }
+        }
+    }
+
+    private static ExecutorService newThreadPool(LaunchServer.Config config) {
+        if (config.virtualThreads) {
+            try { // Java 21+ only, so lookup reflectively
+                MethodHandle newVirtualPool = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+                ExecutorService threadPool = (ExecutorService) newVirtualPool.invokeExact();
+                LogHelper.info("Virtual threads enabled for responses");
+                return threadPool;
+            } catch (Throwable ignored) {
+                LogHelper.warning("Virtual threads aren't supported by this JVM, using platform threads");
+            }
+        }
+
+        // Platform threads pool (NIO workers are a cap on connections, nothing is queued behind long updates)
+        return config.nio ? new ThreadPoolExecutor(config.nioWorkers, config.nioWorkers, 60L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), THREAD_FACTORY) : Executors.newCachedThreadPool(THREAD_FACTORY);
+    }
+
     public interface Listener {
         @LauncherAPI
         boolean onConnect(long id, InetAddress address);
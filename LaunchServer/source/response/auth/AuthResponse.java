@@ -16,7 +16,6 @@ import launchserver.auth.AuthException;
 import launchserver.auth.provider.AuthProvider;
 import launchserver.auth.provider.AuthProviderResult;
 import launchserver.response.Response;
-import launchserver.response.profile.ProfileByUUIDResponse;
 
 public final class AuthResponse extends Response {
     private final String ip;
@@ -34,8 +33,7 @@ public final class AuthResponse extends Response {
         // Decrypt password
         String password;
         try {
-            password = IOHelper.decode(SecurityHelper.newRSADecryptCipher(server.privateKey).
-                doFinal(encryptedPassword));
+            password = IOHelper.decode(SecurityHelper.decrypt(encryptedPassword, server.privateKey));
         } catch (IllegalBlockSizeException | BadPaddingException ignored) {
             requestError("Password decryption error");
             return;
@@ -75,7 +73,7 @@ public final class AuthResponse extends Response {
         writeNoError(output);
 
         // Write profile and UUID
-        ProfileByUUIDResponse.getProfile(server, uuid, result.username).write(output);
+        server.profileCache.writeProfile(output, uuid, result.username);
         output.writeASCII(result.accessToken, -SecurityHelper.TOKEN_STRING_LENGTH);
     }
 
@@ -11,7 +11,6 @@ import launcher.serialize.HOutput;
 import launchserver.LaunchServer;
 import launchserver.auth.AuthException;
 import launchserver.response.Response;
-import launchserver.response.profile.ProfileByUUIDResponse;
 
 public final class CheckServerResponse extends Response {
     public CheckServerResponse(LaunchServer server, long id, HInput input, HOutput output) {
@@ -41,7 +40,7 @@ public final class CheckServerResponse extends Response {
         // Write profile and UUID
         output.writeBoolean(uuid != null);
         if (uuid != null) {
-            ProfileByUUIDResponse.getProfile(server, uuid, username).write(output);
+            server.profileCache.writeProfile(output, uuid, username);
         }
     }
 }
@@ -2,6 +2,10 @@ package launchserver.response.profile;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import launcher.helper.VerifyHelper;
 import launcher.request.uuid.BatchProfileByUsernameRequest;
@@ -23,9 +27,55 @@ public final class BatchProfileByUsernameResponse extends Response {
         }
         debug("Usernames: " + Arrays.toString(usernames));
 
-        // Respond with profiles array
-        for (String username : usernames) {
-            ProfileByUsernameResponse.writeProfile(server, output, username);
+        // Respond with profiles array (in request order)
+        for (byte[] profile : getProfiles(usernames)) {
+            ProfileByUsernameResponse.writeProfile(output, profile);
         }
     }
+
+    private byte[][] getProfiles(String[] usernames) throws IOException {
+        byte[][] profiles = new byte[usernames.length][];
+        AtomicInteger next = new AtomicInteger(0);
+        CountDownLatch done = new CountDownLatch(usernames.length);
+        AtomicReference<IOException> error = new AtomicReference<>();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < profiles.length; i = next.getAndIncrement()) {
+                try {
+                    if (error.get() == null) { // Don't resolve rest of batch if already failed
+                        profiles[i] = ProfileByUsernameResponse.getEncodedProfile(server, usernames[i]);
+                    }
+                } catch (IOException e) {
+                    error.compareAndSet(null, e);
+                } catch (Throwable exc) {
+                    error.compareAndSet(null, new IOException(exc));
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+
+        // Submit helpers, this thread resolves profiles too (so batch can't stall on busy pool)
+        int helpers = Math.min(usernames.length, server.config.batchProfileConcurrency) - 1;
+        try {
+            for (int i = 0; i < helpers; i++) {
+                server.profileExecutor.execute(worker);
+            }
+        } catch (RejectedExecutionException ignored) {
+            // Shutting down, resolve the rest here
+        }
+        worker.run();
+
+        // Wait for profiles being resolved by helpers
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        IOException exc = error.get();
+        if (exc != null) {
+            throw exc;
+        }
+        return profiles;
+    }
 }
@@ -30,7 +30,7 @@ public final class ProfileByUUIDResponse extends Response {
 
         // Write profile
         output.writeBoolean(true);
-        getProfile(server, uuid, username).write(output);
+        server.profileCache.writeProfile(output, uuid, username);
     }
 
     public static PlayerProfile getProfile(LaunchServer server, UUID uuid, String username) {
@@ -23,15 +23,23 @@ public final class ProfileByUsernameResponse extends Response {
         writeProfile(server, output, username);
     }
 
-    public static void writeProfile(LaunchServer server, HOutput output, String username) throws IOException {
+    public static byte[] getEncodedProfile(LaunchServer server, String username) throws IOException {
         UUID uuid = server.config.authHandler.usernameToUUID(username);
-        if (uuid == null) {
+        return uuid == null ? null : server.profileCache.getProfile(uuid, username);
+    }
+
+    public static void writeProfile(HOutput output, byte[] encodedProfile) throws IOException {
+        if (encodedProfile == null) {
             output.writeBoolean(false);
             return;
         }
 
         // Write profile
         output.writeBoolean(true);
-        ProfileByUUIDResponse.getProfile(server, uuid, username).write(output);
+        output.stream.write(encodedProfile);
+    }
+
+    public static void writeProfile(LaunchServer server, HOutput output, String username) throws IOException {
+        writeProfile(output, getEncodedProfile(server, username));
     }
 }
@@ -0,0 +1,102 @@
+package launchserver.response.profile;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import launcher.LauncherAPI;
+import launcher.client.PlayerProfile;
+import launcher.client.PlayerProfile.Texture;
+import launcher.serialize.HOutput;
+import launchserver.LaunchServer;
+
+public final class ProfileCache {
+    private final LaunchServer server;
+    private final long expire;
+    private final int size;
+
+    // Instance
+    private final Map<UUID, Entry> cache = new ConcurrentHashMap<>(1024);
+    private final ReentrantLock cleanLock = new ReentrantLock();
+
+    @LauncherAPI
+    public ProfileCache(LaunchServer server) {
+        this.server = server;
+        expire = TimeUnit.SECONDS.toNanos(server.config.profileCacheExpire);
+        size = server.config.profileCacheSize;
+    }
+
+    @LauncherAPI
+    public byte[] getProfile(UUID uuid, String username) throws IOException {
+        Entry entry = cache.get(uuid);
+        long now = System.nanoTime();
+        if (entry != null && entry.profile.username.equals(username) && now - entry.validated < expire) {
+            return entry.encoded; // Fresh enough, no need to query textures
+        }
+
+        // Same username and textures, so keep encoded profile
+        PlayerProfile profile = ProfileByUUIDResponse.getProfile(server, uuid, username);
+        if (entry != null && isSameProfile(entry.profile, profile)) {
+            entry.validated = now;
+            return entry.encoded;
+        }
+
+        // Profile changed or not cached yet
+        byte[] encoded = profile.write();
+        if (expire > 0L && (cache.containsKey(uuid) || cache.size() < size || clean(now))) {
+            cache.put(uuid, new Entry(profile, encoded, now));
+        }
+        return encoded;
+    }
+
+    @LauncherAPI
+    public void invalidate(UUID uuid) { // Invalidation is TTL-based, this is for plugins and scripts
+        cache.remove(uuid);
+    }
+
+    @LauncherAPI
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    @LauncherAPI
+    public void writeProfile(HOutput output, UUID uuid, String username) throws IOException {
+        output.stream.write(getProfile(uuid, username));
+    }
+
+    private boolean clean(long now) {
+        if (cleanLock.tryLock()) { // Otherwise someone is already cleaning
+            try {
+                // Entries not validated within expire time weren't requested since
+                cache.values().removeIf(entry -> now - entry.validated >= expire);
+            } finally {
+                cleanLock.unlock();
+            }
+        }
+        return cache.size() < size; // Hot entries are kept, new one isn't cached
+    }
+
+    private static boolean isSameProfile(PlayerProfile a, PlayerProfile b) {
+        return a.username.equals(b.username) && isSameTexture(a.skin, b.skin) && isSameTexture(a.cloak, b.cloak);
+    }
+
+    private static boolean isSameTexture(Texture a, Texture b) {
+        return a == b || a != null && b != null && a.url.equals(b.url) && Arrays.equals(a.digest, b.digest);
+    }
+
+    private static final class Entry {
+        private final PlayerProfile profile;
+        private final byte[] encoded;
+        private volatile long validated;
+
+        private Entry(PlayerProfile profile, byte[] encoded, long validated) {
+            this.profile = profile;
+            this.encoded = encoded;
+            this.validated = validated;
+        }
+    }
+}
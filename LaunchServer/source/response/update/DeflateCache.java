@@ -0,0 +1,189 @@
+package launchserver.response.update;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import launcher.LauncherAPI;
+import launcher.hasher.HashedDir;
+import launcher.hasher.HashedEntry;
+import launcher.hasher.HashedFile;
+import launcher.helper.IOHelper;
+import launcher.helper.LogHelper;
+import launcher.helper.SecurityHelper;
+
+public final class DeflateCache {
+    private static final String EXTENSION = "deflate";
+
+    // Instance
+    private final Path dir;
+    private final Map<String, FutureTask<Path>> compressing = new ConcurrentHashMap<>(16);
+
+    @LauncherAPI
+    public DeflateCache(Path dir) {
+        this.dir = dir;
+    }
+
+    @LauncherAPI
+    public Path getCompressed(Path file, HashedFile hFile) throws IOException {
+        byte[] digest = hFile.getDigest();
+        if (digest == null) {
+            return null; // Can't be cached without digest
+        }
+
+        // Maybe already compressed?
+        String name = SecurityHelper.toHex(digest);
+        Path compressed = resolve(name);
+        if (IOHelper.isFile(compressed)) {
+            return compressed;
+        }
+
+        // Compress only once, even if requested concurrently
+        FutureTask<Path> task = new FutureTask<>(() -> compress(file, hFile, name));
+        FutureTask<Path> previous = compressing.putIfAbsent(name, task);
+        if (previous == null) {
+            try {
+                task.run();
+            } finally {
+                compressing.remove(name, task);
+            }
+        } else {
+            task = previous;
+        }
+
+        // Wait for result
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    @LauncherAPI
+    public void retain(Collection<HashedDir> hdirs) throws IOException {
+        if (!IOHelper.isDir(dir)) {
+            return; // Nothing cached yet
+        }
+
+        // Collect all still used digests
+        Set<String> used = new HashSet<>(1024);
+        for (HashedDir hdir : hdirs) {
+            collectDigests(hdir, used);
+        }
+
+        // Delete unused compressed files
+        int deleted = 0;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(dir)) {
+            for (Path shard : shards) {
+                if (!IOHelper.isDir(shard)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+                    for (Path file : files) {
+                        String fileName = IOHelper.getFileName(file);
+                        int dot = fileName.indexOf('.');
+                        String name = dot >= 0 ? fileName.substring(0, dot) : fileName;
+                        if (fileName.endsWith(".tmp") ? compressing.containsKey(name) : used.contains(name)) {
+                            continue; // Still used, or temp file is being written right now
+                        }
+                        try {
+                            Files.delete(file);
+                            deleted++;
+                        } catch (IOException e) {
+                            LogHelper.debug("Can't delete unused compressed file: '%s'", file);
+                        }
+                    }
+                }
+            }
+        }
+        if (deleted > 0) {
+            LogHelper.subInfo("Deleted %d unused compressed files", deleted);
+        }
+    }
+
+    private Path compress(Path file, HashedFile hFile, String name) throws IOException {
+        Path compressed = resolve(name);
+        if (IOHelper.isFile(compressed)) {
+            return compressed; // Compressed by previous task
+        }
+
+        // Compress to temp file and verify digest at the same time
+        Path compressedTmp = compressed.resolveSibling(String.format("%s.%d.tmp", name, Thread.currentThread().getId()));
+        boolean published = false;
+        try {
+            MessageDigest digest = SecurityHelper.newDigest(HashedFile.DIGEST_ALGO);
+            Deflater deflater = IOHelper.newDeflater();
+            try (InputStream input = IOHelper.newInput(file);
+                OutputStream output = new DeflaterOutputStream(IOHelper.newOutput(compressedTmp), deflater, IOHelper.BUFFER_SIZE)) {
+                byte[] buffer = IOHelper.newBuffer();
+                for (int length = input.read(buffer); length >= 0; length = input.read(buffer)) {
+                    digest.update(buffer, 0, length);
+                    output.write(buffer, 0, length);
+                }
+            } finally {
+                deflater.end();
+            }
+
+            // File could be modified after hashing
+            if (!hFile.isSameDigest(digest.digest())) {
+                throw new IOException(String.format("Update file was modified after sync: '%s'", file));
+            }
+
+            // Publish compressed file
+            IOHelper.move(compressedTmp, compressed);
+            published = true;
+            return compressed;
+        } finally {
+            if (!published) { // Don't leave partial or mismatched file behind
+                deleteTmp(compressedTmp);
+            }
+        }
+    }
+
+    private Path resolve(String name) {
+        return dir.resolve(name.substring(0, 2)).resolve(name + '.' + EXTENSION);
+    }
+
+    private static void collectDigests(HashedDir hdir, Set<String> digests) {
+        for (HashedEntry entry : hdir.map().values()) {
+            switch (entry.getType()) {
+                case FILE:
+                    byte[] digest = ((HashedFile) entry).getDigest();
+                    if (digest != null) {
+                        digests.add(SecurityHelper.toHex(digest));
+                    }
+                    break;
+                case DIR:
+                    collectDigests((HashedDir) entry, digests);
+                    break;
+                default:
+                    throw new AssertionError("Unsupported hashed entry type: " + entry.getType().name());
+            }
+        }
+    }
+
+    private static void deleteTmp(Path compressedTmp) {
+        try {
+            Files.deleteIfExists(compressedTmp);
+        } catch (IOException e) {
+            LogHelper.debug("Can't delete temp compressed file: '%s'", compressedTmp);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package launchserver.response.update;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+import launcher.hasher.HashedBlocks;
+import launcher.hasher.HashedFile;
+import launcher.hasher.RollingChecksum;
+import launcher.helper.SecurityHelper;
+import launcher.request.update.UpdateRequest;
+import launcher.request.update.UpdateRequest.DeltaType;
+import launcher.serialize.HOutput;
+import launcher.serialize.stream.EnumSerializer;
+
+/*package*/ final class DeltaWriter {
+    private final HOutput output;
+    private final HashedBlocks blocks;
+    private final byte[] literal = new byte[UpdateRequest.MAX_LITERAL_SIZE];
+
+    /*package*/ DeltaWriter(HOutput output, HashedBlocks blocks) {
+        this.output = output;
+        this.blocks = blocks;
+    }
+
+    /*package*/ void write(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (size > Integer.MAX_VALUE || blocks.count() == 0 || size < blocks.blockSize) {
+                writeLiterals(Channels.newInputStream(channel), size);
+            } else {
+                writeDelta(channel.map(MapMode.READ_ONLY, 0L, size));
+            }
+        }
+        EnumSerializer.write(output, DeltaType.END);
+    }
+
+    private void writeDelta(MappedByteBuffer buffer) throws IOException {
+        int length = blocks.blockSize;
+        int limit = buffer.limit();
+        MessageDigest digest = SecurityHelper.newDigest(HashedFile.DIGEST_ALGO);
+        RollingChecksum checksum = new RollingChecksum(length);
+        ByteBuffer window = buffer.duplicate();
+
+        // Slide window over file
+        int position = 0;
+        int literalStart = 0;
+        boolean reset = true;
+        while (position + length <= limit) {
+            if (reset) {
+                checksum.reset();
+                for (int i = position; i < position + length; i++) {
+                    checksum.update(buffer.get(i));
+                }
+                reset = false;
+            }
+
+            // Try to find matching block
+            window.limit(position + length).position(position);
+            int index = blocks.find(checksum.getValue(), window, digest);
+            if (index >= 0) {
+                writeLiteral(buffer, literalStart, position);
+                EnumSerializer.write(output, DeltaType.COPY);
+                output.writeVarInt(index);
+                position += length;
+                literalStart = position;
+                reset = true;
+                continue;
+            }
+
+            // Roll to next byte
+            if (position + length < limit) {
+                checksum.roll(buffer.get(position), buffer.get(position + length));
+            }
+            position++;
+        }
+        writeLiteral(buffer, literalStart, limit);
+    }
+
+    private void writeLiteral(ByteBuffer buffer, int start, int end) throws IOException {
+        ByteBuffer source = buffer.duplicate();
+        source.limit(end).position(start);
+        while (source.hasRemaining()) {
+            int length = Math.min(source.remaining(), literal.length);
+            source.get(literal, 0, length);
+            writeLiteral(length);
+        }
+    }
+
+    private void writeLiteral(int length) throws IOException {
+        EnumSerializer.write(output, DeltaType.LITERAL);
+        output.writeLength(length, literal.length);
+        output.stream.write(literal, 0, length);
+    }
+
+    private void writeLiterals(InputStream input, long size) throws IOException {
+        long remaining = size;
+        while (remaining > 0L) {
+            int length = input.read(literal, 0, (int) Math.min(remaining, literal.length));
+            if (length < 0) {
+                throw new EOFException(String.format("%d bytes remaining", remaining));
+            }
+            writeLiteral(length);
+            remaining -= length;
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package launchserver.response.update;
 
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.LinkedList;
-import java.util.zip.DeflaterOutputStream;
+import java.util.Map;
 
 import launcher.hasher.HashedDir;
 import launcher.hasher.HashedEntry;
 import launcher.hasher.HashedEntry.Type;
+import launcher.hasher.HashedFile;
 import launcher.helper.IOHelper;
+import launcher.helper.SecurityHelper;
 import launcher.request.update.UpdateRequest;
 import launcher.request.update.UpdateRequest.Action;
 import launcher.serialize.HInput;
@@ -21,14 +28,18 @@ import launchserver.LaunchServer;
 import launchserver.response.Response;
 
 public final class UpdateResponse extends Response {
-    public UpdateResponse(LaunchServer server, long id, HInput input, HOutput output) {
+    private final SocketChannel channel;
+
+    public UpdateResponse(LaunchServer server, long id, HInput input, HOutput output, SocketChannel channel) {
         super(server, id, input, output);
+        this.channel = channel;
     }
 
     @Override
     public void reply() throws IOException {
         // Read update dir name
         String updateDirName = IOHelper.verifyFileName(input.readString(255));
+        byte[] cachedSign = input.readBoolean() ? input.readByteArray(-SecurityHelper.RSA_KEY_LENGTH) : null;
         SignedObjectHolder<HashedDir> hdir = server.getUpdateDir(updateDirName);
         if (hdir == null) {
             requestError(String.format("Unknown update dir: %s", updateDirName));
@@ -36,27 +47,40 @@ public final class UpdateResponse extends Response {
         }
         writeNoError(output);
 
-        // Write update hdir
-        debug("Update dir: '%s'", updateDirName);
-        hdir.write(output);
+        // Write update hdir (if client's cached one is outdated)
+        boolean changed = cachedSign == null || !Arrays.equals(cachedSign, hdir.getSign());
+        debug("Update dir: '%s', changed: %b", updateDirName, changed);
+        output.writeBoolean(changed);
+        if (changed) {
+            hdir.write(output);
+        }
         output.writeBoolean(server.config.compress);
         output.flush();
 
         // Prepare variables for actions queue
         Path dir = server.updatesDir.resolve(updateDirName);
-        Deque<HashedDir> dirStack = new LinkedList<>();
-        dirStack.add(hdir.object);
+        Map<String, HashedEntry> pathIndex = hdir.object.pathIndex();
+        Deque<String> pathStack = new LinkedList<>();
+        pathStack.add("");
+
+        // Path while reading actions (for DELTA blocks limit), performing validates it
+        Deque<String> readPathStack = new LinkedList<>();
+        readPathStack.add("");
 
         // Perform update
-        // noinspection IOResourceOpenedButNotSafelyClosed
-        OutputStream fileOutput = server.config.compress ? new DeflaterOutputStream(output.stream, IOHelper.newDeflater(), IOHelper.BUFFER_SIZE, true) : output.stream;
         Action[] actionsSlice = new Action[UpdateRequest.MAX_QUEUE_SIZE];
         loop:
         while (true) {
             // Read actions slice
             int length = input.readLength(actionsSlice.length);
             for (int i = 0; i < length; i++) {
-                actionsSlice[i] = new Action(input);
+                Action action = new Action(input, name -> getFileSize(pathIndex, readPathStack.getLast() + name));
+                if (action.type == Action.Type.CD) {
+                    readPathStack.add(readPathStack.getLast() + action.name + '/');
+                } else if (action.type == Action.Type.CD_BACK && readPathStack.size() > 1) {
+                    readPathStack.removeLast();
+                }
+                actionsSlice[i] = action;
             }
 
             // Perform actions
@@ -67,20 +91,22 @@ public final class UpdateResponse extends Response {
                         debug("CD '%s'", action.name);
 
                         // Get hashed dir (for validation)
-                        HashedEntry hSubdir = dirStack.getLast().getEntry(action.name);
+                        String subdirPath = pathStack.getLast() + action.name;
+                        HashedEntry hSubdir = pathIndex.get(subdirPath);
                         if (hSubdir == null || hSubdir.getType() != Type.DIR) {
                             throw new IOException("Unknown hashed dir: " + action.name);
                         }
-                        dirStack.add((HashedDir) hSubdir);
+                        pathStack.add(subdirPath + '/');
 
                         // Resolve dir
                         dir = dir.resolve(action.name);
                         break;
                     case GET:
-                        debug("GET '%s'", action.name);
+                    case DELTA:
+                        debug("%s '%s' from %d", action.type.name(), action.name, action.offset);
 
                         // Get hashed file (for validation)
-                        HashedEntry hFile = dirStack.getLast().getEntry(action.name);
+                        HashedEntry hFile = pathIndex.get(pathStack.getLast() + action.name);
                         if (hFile == null || hFile.getType() != Type.FILE) {
                             throw new IOException("Unknown hashed file: " + action.name);
                         }
@@ -88,21 +114,45 @@ public final class UpdateResponse extends Response {
                         // Resolve and write file
                         Path file = dir.resolve(action.name);
                         if (IOHelper.readAttributes(file).size() != hFile.size()) {
-                            fileOutput.write(0x0);
-                            fileOutput.flush();
+                            output.writeUnsignedByte(0x0);
+                            output.flush();
                             throw new IOException("Unknown hashed file: " + action.name);
                         }
-                        fileOutput.write(0xFF);
-                        try (InputStream fileInput = IOHelper.newInput(file)) {
-                            IOHelper.transfer(fileInput, fileOutput);
+                        if (action.offset < 0L || action.offset > hFile.size()) {
+                            output.writeUnsignedByte(0x0);
+                            output.flush();
+                            throw new IOException("Invalid offset for file: " + action.name);
                         }
+                        output.writeUnsignedByte(0xFF);
+
+                        // Send only blocks that client doesn't have
+                        if (action.type == Action.Type.DELTA) {
+                            new DeltaWriter(output, action.blocks).write(file, hFile.size());
+                            break;
+                        }
+
+                        // Use pre-compressed file if it's smaller (resumed files are sent as is)
+                        if (server.config.compress && action.offset > 0L) {
+                            output.writeBoolean(false);
+                        } else if (server.config.compress) {
+                            Path compressed = server.deflateCache.getCompressed(file, (HashedFile) hFile);
+                            long compressedSize = compressed == null ? -1L : IOHelper.readAttributes(compressed).size();
+                            boolean deflated = compressedSize >= 0L && compressedSize < hFile.size();
+                            output.writeBoolean(deflated);
+                            if (deflated) {
+                                output.writeVarLong(compressedSize);
+                                writeFile(compressed, 0L, compressedSize);
+                                break;
+                            }
+                        }
+                        writeFile(file, action.offset, hFile.size());
                         break;
                     case CD_BACK:
                         debug("CD ..");
 
-                        // Remove from hashed dir stack
-                        dirStack.removeLast();
-                        if (dirStack.isEmpty()) {
+                        // Remove from hashed path stack
+                        pathStack.removeLast();
+                        if (pathStack.isEmpty()) {
                             throw new IOException("Empty hDir stack");
                         }
 
@@ -117,12 +167,39 @@ public final class UpdateResponse extends Response {
             }
 
             // Flush all actions
-            fileOutput.flush();
+            output.flush();
         }
 
         // So we've updated :)
-        if (fileOutput instanceof DeflaterOutputStream) {
-            ((DeflaterOutputStream) fileOutput).finish();
+    }
+
+    private void writeFile(Path file, long offset, long size) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel != null) {
+                output.flush(); // Zero-copy directly to socket
+                transfer(fileChannel, offset, size, channel);
+                return;
+            }
+
+            // Seek and copy to stream
+            fileChannel.position(offset);
+            IOHelper.transfer(Channels.newInputStream(fileChannel), output.stream);
+        }
+    }
+
+    private static long getFileSize(Map<String, HashedEntry> pathIndex, String path) {
+        HashedEntry hFile = pathIndex.get(path);
+        return hFile == null || hFile.getType() != Type.FILE ? -1L : hFile.size();
+    }
+
+    private static void transfer(FileChannel fileChannel, long offset, long size, WritableByteChannel channel) throws IOException {
+        long position = offset;
+        while (position < size) {
+            long transferred = fileChannel.transferTo(position, size - position, channel);
+            if (transferred <= 0L) { // Truncated after size check
+                throw new EOFException(String.format("%d bytes remaining", size - position));
+            }
+            position += transferred;
         }
     }
 }
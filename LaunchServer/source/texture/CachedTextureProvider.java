@@ -0,0 +1,242 @@
+package launchserver.texture;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import launcher.LauncherAPI;
+import launcher.client.PlayerProfile.Texture;
+import launcher.helper.CommonHelper;
+import launcher.helper.LogHelper;
+import launcher.helper.VerifyHelper;
+import launcher.serialize.config.entry.BlockConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
+import launcher.serialize.config.entry.StringConfigEntry;
+
+public final class CachedTextureProvider extends TextureProvider {
+    private static final long TOUCH_NANOS = TimeUnit.SECONDS.toNanos(1L); // Access time granularity
+    private static final int REFRESH_QUEUE = 1024; // Refreshes beyond that are dropped
+
+    // Config
+    private final TextureProvider provider;
+    private final int cacheSize;
+    private final long cacheExpire;
+    private final long cacheRefresh;
+
+    // Instance
+    private final Cache skins = new Cache(false);
+    private final Cache cloaks = new Cache(true);
+    private final ThreadPoolExecutor refreshPool;
+
+    public CachedTextureProvider(BlockConfigEntry block) {
+        super(block);
+        provider = TextureProvider.newProvider(block.getEntryValue("provider", StringConfigEntry.class),
+            block.getEntry("providerConfig", BlockConfigEntry.class));
+        cacheSize = block.hasEntry("cacheSize") ? VerifyHelper.verifyInt(
+            block.getEntryValue("cacheSize", IntegerConfigEntry.class),
+            VerifyHelper.NOT_NEGATIVE, "cacheSize can't be < 0") : 4096;
+        cacheExpire = TimeUnit.SECONDS.toNanos(block.hasEntry("cacheExpire") ? VerifyHelper.verifyInt(
+            block.getEntryValue("cacheExpire", IntegerConfigEntry.class),
+            VerifyHelper.POSITIVE, "cacheExpire can't be <= 0") : 3600);
+        cacheRefresh = block.hasEntry("cacheRefresh") ? TimeUnit.SECONDS.toNanos(VerifyHelper.verifyInt(
+            block.getEntryValue("cacheRefresh", IntegerConfigEntry.class),
+            VerifyHelper.POSITIVE, "cacheRefresh can't be <= 0")) : cacheExpire - (cacheExpire >>> 2);
+        VerifyHelper.verify(cacheRefresh, r -> r <= cacheExpire, "cacheRefresh can't be > cacheExpire");
+
+        // Create refresh pool
+        int refreshThreads = block.hasEntry("refreshThreads") ? VerifyHelper.verifyInt(
+            block.getEntryValue("refreshThreads", IntegerConfigEntry.class),
+            VerifyHelper.POSITIVE, "refreshThreads can't be <= 0") : 2;
+        refreshPool = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(REFRESH_QUEUE), r -> CommonHelper.newThread("Texture Refresh Thread", true, r));
+    }
+
+    @Override
+    public void close() throws IOException {
+        refreshPool.shutdownNow();
+        provider.close();
+    }
+
+    @Override
+    public Texture getCloakTexture(UUID uuid, String username) throws IOException {
+        return cloaks.get(uuid, username);
+    }
+
+    @Override
+    public Texture getSkinTexture(UUID uuid, String username) throws IOException {
+        return skins.get(uuid, username);
+    }
+
+    @LauncherAPI
+    public int getCacheSize() {
+        return skins.entries.size() + cloaks.entries.size();
+    }
+
+    private final class Cache {
+        private final boolean cloak;
+        private final Map<UUID, Entry> entries = new ConcurrentHashMap<>(1024);
+
+        // Loading entries (only one fetch per UUID at a time, both for misses and refreshes)
+        private final Map<UUID, FutureTask<Entry>> loading = new ConcurrentHashMap<>(64);
+
+        // Eviction (approximate LRU, amortized by evicting down to 7/8 of cache size)
+        private final ReentrantLock evictLock = new ReentrantLock();
+
+        private Cache(boolean cloak) {
+            this.cloak = cloak;
+        }
+
+        private void evict() {
+            long now = System.nanoTime();
+            List<Entry> values = new ArrayList<>(entries.values());
+            int excess = values.size() - (cacheSize - (cacheSize >>> 3));
+            if (excess <= 0) {
+                return;
+            }
+
+            // Snapshot, as entries could be touched while evicting
+            long[] accessed = new long[values.size()];
+            for (int i = 0; i < accessed.length; i++) {
+                accessed[i] = values.get(i).accessed - now;
+            }
+            Arrays.sort(accessed);
+
+            // Evict entries not touched since snapshot
+            long threshold = accessed[excess - 1];
+            for (Entry entry : values) {
+                if (excess > 0 && entry.accessed - now <= threshold && entries.remove(entry.uuid, entry)) {
+                    excess--;
+                }
+            }
+        }
+
+        private void evictIfNeeded() {
+            if (cacheSize > 0 && entries.size() > cacheSize && evictLock.tryLock()) {
+                try {
+                    evict();
+                } finally {
+                    evictLock.unlock();
+                }
+            }
+        }
+
+        private Entry fetch(UUID uuid, String username, Entry stale) throws IOException {
+            Texture texture;
+            try {
+                texture = cloak ? provider.getCloakTexture(uuid, username) : provider.getSkinTexture(uuid, username);
+            } catch (IOException | RuntimeException e) {
+                if (stale == null) {
+                    throw e;
+                }
+
+                // Serve stale texture, and retry on next access without blocking
+                LogHelper.warning("Can't refresh %s texture for '%s', serving stale: %s", cloak ? "cloak" : "skin", username, e);
+                Entry retry = new Entry(uuid, username, stale.texture, System.nanoTime() - cacheRefresh);
+                entries.replace(uuid, stale, retry);
+                return retry;
+            }
+
+            // Cache fetched texture
+            Entry entry = new Entry(uuid, username, texture, System.nanoTime());
+            entries.put(uuid, entry);
+            evictIfNeeded();
+            return entry;
+        }
+
+        private Texture get(UUID uuid, String username) throws IOException {
+            Entry entry = entries.get(uuid);
+            if (entry != null && entry.username.equals(username)) {
+                long now = System.nanoTime();
+                long age = now - entry.loaded;
+                if (age < cacheExpire) {
+                    if (age >= cacheRefresh) {
+                        refresh(entry); // Refresh ahead in background
+                    }
+                    if (now - entry.accessed > TOUCH_NANOS) { // Don't dirty cache line on every hit
+                        entry.accessed = now;
+                    }
+                    return entry.texture;
+                }
+            }
+
+            // Expired, missing or username changed (only same-username entry can be served stale)
+            Entry stale = entry != null && entry.username.equals(username) ? entry : null;
+            return load(uuid, username, stale).texture;
+        }
+
+        private Entry load(UUID uuid, String username, Entry stale) throws IOException {
+            FutureTask<Entry> task = new FutureTask<>(() -> fetch(uuid, username, stale));
+            FutureTask<Entry> previous = loading.putIfAbsent(uuid, task);
+            if (previous == null) {
+                try {
+                    task.run();
+                } finally {
+                    loading.remove(uuid, task);
+                }
+            } else {
+                task = previous;
+            }
+
+            // Wait for result
+            Entry entry;
+            try {
+                entry = task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+            }
+
+            // Joined load for another username, fetch our own
+            return entry.username.equals(username) ? entry : load(uuid, username, stale);
+        }
+
+        private void refresh(Entry entry) {
+            FutureTask<Entry> task = new FutureTask<>(() -> fetch(entry.uuid, entry.username, entry));
+            if (loading.putIfAbsent(entry.uuid, task) != null) {
+                return; // Already loading or refreshing
+            }
+
+            // Submit refresh
+            try {
+                refreshPool.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        loading.remove(entry.uuid, task);
+                    }
+                });
+            } catch (RejectedExecutionException ignored) { // Queue is full, will be retried on next access
+                loading.remove(entry.uuid, task);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final UUID uuid;
+        private final String username;
+        private final Texture texture;
+        private final long loaded;
+        private volatile long accessed = System.nanoTime();
+
+        private Entry(UUID uuid, String username, Texture texture, long loaded) {
+            this.uuid = uuid;
+            this.username = username;
+            this.texture = texture;
+            this.loaded = loaded;
+        }
+    }
+}
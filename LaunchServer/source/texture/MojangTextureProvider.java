@@ -6,6 +6,7 @@ import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.eclipsesource.json.Json;
 import com.eclipsesource.json.JsonArray;
@@ -28,6 +29,7 @@ public final class MojangTextureProvider extends TextureProvider {
 
     // Instance
     private final Map<String, CacheData> cache = new HashMap<>(1024);
+    private final ReentrantLock cacheLock = new ReentrantLock();
 
     public MojangTextureProvider(BlockConfigEntry block) {
         super(block);
@@ -39,13 +41,23 @@ public final class MojangTextureProvider extends TextureProvider {
     }
 
     @Override
-    public synchronized Texture getCloakTexture(UUID uuid, String username) {
-        return getCached(uuid, username).cloak;
+    public Texture getCloakTexture(UUID uuid, String username) {
+        cacheLock.lock();
+        try {
+            return getCached(uuid, username).cloak;
+        } finally {
+            cacheLock.unlock();
+        }
     }
 
     @Override
-    public synchronized Texture getSkinTexture(UUID uuid, String username) {
-        return getCached(uuid, username).skin;
+    public Texture getSkinTexture(UUID uuid, String username) {
+        cacheLock.lock();
+        try {
+            return getCached(uuid, username).skin;
+        } finally {
+            cacheLock.unlock();
+        }
     }
 
     private CacheData getCached(UUID uuid, String username) {
@@ -2,14 +2,18 @@ package launchserver.texture;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import launcher.client.ClientLauncher;
 import launcher.client.PlayerProfile.Texture;
 import launcher.helper.CommonHelper;
 import launcher.helper.IOHelper;
 import launcher.helper.LogHelper;
+import launcher.helper.VerifyHelper;
 import launcher.serialize.config.entry.BlockConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
 
 public final class RequestTextureProvider extends TextureProvider {
@@ -19,10 +23,24 @@ public final class RequestTextureProvider extends TextureProvider {
     private final String skinURL;
     private final String cloakURL;
 
+    // Digest cache (revalidated with ETag/Last-Modified after max age)
+    private final Path cacheFile;
+    private final TextureDigestCache cache;
+
     public RequestTextureProvider(BlockConfigEntry block) {
         super(block);
         skinURL = block.getEntryValue("skinsURL", StringConfigEntry.class);
         cloakURL = block.getEntryValue("cloaksURL", StringConfigEntry.class);
+        cacheFile = block.hasEntry("cacheFile") ?
+            IOHelper.toPath(block.getEntryValue("cacheFile", StringConfigEntry.class)) : null;
+        int cacheSize = block.hasEntry("cacheSize") ? VerifyHelper.verifyInt(
+            block.getEntryValue("cacheSize", IntegerConfigEntry.class),
+            VerifyHelper.POSITIVE, "cacheSize can't be <= 0") : 16384;
+        long cacheMaxAge = TimeUnit.SECONDS.toMillis(block.hasEntry("cacheMaxAge") ? VerifyHelper.verifyInt(
+            block.getEntryValue("cacheMaxAge", IntegerConfigEntry.class),
+            VerifyHelper.NOT_NEGATIVE, "cacheMaxAge can't be < 0") : 60);
+        cache = cacheFile == null ? new TextureDigestCache(cacheSize, cacheMaxAge) :
+            TextureDigestCache.read(cacheFile, cacheSize, cacheMaxAge);
 
         // Verify
         IOHelper.verifyURL(getTextureURL(skinURL, ZERO_UUID, "skinUsername"));
@@ -30,8 +48,10 @@ public final class RequestTextureProvider extends TextureProvider {
     }
 
     @Override
-    public void close() {
-        // Do nothing
+    public void close() throws IOException {
+        if (cacheFile != null) {
+            cache.write(cacheFile);
+        }
     }
 
     @Override
@@ -44,10 +64,10 @@ public final class RequestTextureProvider extends TextureProvider {
         return getTexture(getTextureURL(skinURL, uuid, username), false);
     }
 
-    private static Texture getTexture(String url, boolean cloak) throws IOException {
+    private Texture getTexture(String url, boolean cloak) throws IOException {
         LogHelper.debug("Getting texture: '%s'", url);
         try {
-            return new Texture(url, cloak);
+            return cache.getTexture(url, cloak);
         } catch (FileNotFoundException ignored) {
             LogHelper.subDebug("Texture not found :(");
             return null; // Simply not found
@@ -0,0 +1,247 @@
+package launchserver.texture;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import launcher.LauncherAPI;
+import launcher.client.PlayerProfile.Texture;
+import launcher.helper.IOHelper;
+import launcher.helper.LogHelper;
+import launcher.helper.VerifyHelper;
+import launcher.serialize.HInput;
+import launcher.serialize.HOutput;
+import launcher.serialize.stream.StreamObject;
+
+public final class TextureDigestCache extends StreamObject {
+    private static final int MAGIC = 0x54444332; // "TDC2"
+    private static final long TOUCH_MILLIS = 1000L; // Access time granularity
+
+    // Config
+    private final int maxSize;
+    private final long maxAge;
+
+    // Instance
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>(256);
+    private final ReentrantLock evictLock = new ReentrantLock();
+    private volatile boolean modified;
+
+    @LauncherAPI
+    public TextureDigestCache(int maxSize, long maxAge) {
+        this.maxSize = VerifyHelper.verifyInt(maxSize, VerifyHelper.POSITIVE, "maxSize can't be <= 0");
+        this.maxAge = VerifyHelper.verifyLong(maxAge, VerifyHelper.L_NOT_NEGATIVE, "maxAge can't be < 0");
+    }
+
+    @LauncherAPI
+    public TextureDigestCache(HInput input, int maxSize, long maxAge) throws IOException {
+        this(maxSize, maxAge);
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Texture digest cache magic mismatch");
+        }
+
+        // Read entries
+        int count = input.readLength(0);
+        for (int i = 0; i < count; i++) {
+            String url = input.readASCII(2048);
+            entries.put(url, new Entry(input));
+        }
+        evictIfNeeded();
+    }
+
+    @Override
+    public void write(HOutput output) throws IOException {
+        output.writeInt(MAGIC);
+
+        // Write entries
+        Set<Map.Entry<String, Entry>> entrySet = entries.entrySet();
+        output.writeLength(entrySet.size(), 0);
+        for (Map.Entry<String, Entry> entry : entrySet) {
+            output.writeASCII(entry.getKey(), 2048);
+            entry.getValue().write(output);
+        }
+    }
+
+    @LauncherAPI
+    public Texture getTexture(String url, boolean cloak) throws IOException {
+        // Use cached digest as is while it's fresh
+        long now = System.currentTimeMillis();
+        Entry cached = entries.get(url);
+        if (cached != null) {
+            if (now - cached.accessed > TOUCH_MILLIS) { // Don't dirty cache line on every hit
+                cached.accessed = now;
+            }
+            if (now - cached.checked < maxAge) {
+                return new Texture(url, cached.digest.clone());
+            }
+        }
+
+        // Open connection
+        URLConnection connection = IOHelper.newConnection(new URL(IOHelper.verifyURL(url)));
+        if (!(connection instanceof HttpURLConnection)) {
+            return new Texture(url, cloak); // Can't revalidate
+        }
+
+        // Revalidate cached digest, if any
+        HttpURLConnection http = (HttpURLConnection) connection;
+        if (cached != null) {
+            if (cached.etag != null) {
+                http.setRequestProperty("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                http.setRequestProperty("If-Modified-Since", cached.lastModified);
+            }
+        }
+
+        // Not modified, so skip body and texture decoding
+        if (cached != null && http.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            http.getInputStream().close(); // Keep connection alive
+            if (entries.replace(url, cached, new Entry(cached.digest, cached.etag, cached.lastModified, now))) {
+                modified = true;
+            }
+            return new Texture(url, cached.digest.clone());
+        }
+
+        // Fetch and digest texture
+        byte[] texture;
+        try (InputStream input = http.getInputStream()) {
+            texture = IOHelper.read(input);
+        } catch (IOException e) { // Not found, or any other error
+            if (entries.remove(url) != null) {
+                modified = true;
+            }
+            throw e;
+        }
+        Texture result = new Texture(url, texture, cloak);
+
+        // Cache digest if could be revalidated
+        String etag = http.getHeaderField("ETag");
+        String lastModified = http.getHeaderField("Last-Modified");
+        if (etag != null || lastModified != null) {
+            entries.put(url, new Entry(result.digest, etag, lastModified, now));
+            modified = true;
+            evictIfNeeded();
+        } else if (entries.remove(url) != null) {
+            modified = true;
+        }
+        return result;
+    }
+
+    @LauncherAPI
+    public int size() {
+        return entries.size();
+    }
+
+    @LauncherAPI
+    public void write(Path file) throws IOException {
+        if (!modified) {
+            return; // Nothing to write
+        }
+        modified = false;
+
+        // Write to tmp file first
+        Path fileTmp = file.resolveSibling(IOHelper.getFileName(file) + ".tmp");
+        try (HOutput output = new HOutput(new BufferedOutputStream(IOHelper.newOutput(fileTmp), IOHelper.BUFFER_SIZE))) {
+            write(output);
+        }
+        IOHelper.move(fileTmp, file);
+    }
+
+    private void evict() {
+        List<Map.Entry<String, Entry>> values = new ArrayList<>(entries.entrySet());
+        int excess = values.size() - (maxSize - (maxSize >>> 3));
+        if (excess <= 0) {
+            return;
+        }
+
+        // Snapshot, as entries could be touched while evicting
+        long[] accessed = new long[values.size()];
+        for (int i = 0; i < accessed.length; i++) {
+            accessed[i] = values.get(i).getValue().accessed;
+        }
+        Arrays.sort(accessed);
+
+        // Evict least recently used entries
+        long threshold = accessed[excess - 1];
+        for (Map.Entry<String, Entry> entry : values) {
+            if (excess > 0 && entry.getValue().accessed <= threshold && entries.remove(entry.getKey(), entry.getValue())) {
+                modified = true;
+                excess--;
+            }
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() > maxSize && evictLock.tryLock()) { // Amortized by evicting down to 7/8 of max size
+            try {
+                evict();
+            } finally {
+                evictLock.unlock();
+            }
+        }
+    }
+
+    @LauncherAPI
+    public static TextureDigestCache read(Path file, int maxSize, long maxAge) {
+        if (!IOHelper.isFile(file)) {
+            return new TextureDigestCache(maxSize, maxAge);
+        }
+
+        // Read cache, or start from scratch
+        try (HInput input = new HInput(new BufferedInputStream(IOHelper.newInput(file), IOHelper.BUFFER_SIZE))) {
+            return new TextureDigestCache(input, maxSize, maxAge);
+        } catch (IOException e) {
+            LogHelper.warning("Can't read texture digest cache: %s", e);
+            return new TextureDigestCache(maxSize, maxAge);
+        }
+    }
+
+    private static final class Entry extends StreamObject {
+        private final byte[] digest;
+        private final String etag;
+        private final String lastModified;
+        private final long checked; // Last fetched or revalidated, ms
+        private volatile long accessed;
+
+        private Entry(byte[] digest, String etag, String lastModified, long checked) {
+            this.digest = digest.clone();
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.checked = checked;
+            accessed = checked;
+        }
+
+        private Entry(HInput input) throws IOException {
+            digest = input.readByteArray(64);
+            etag = input.readBoolean() ? input.readString(1024) : null;
+            lastModified = input.readBoolean() ? input.readString(1024) : null;
+            checked = input.readLong();
+            accessed = checked;
+        }
+
+        @Override
+        public void write(HOutput output) throws IOException {
+            output.writeByteArray(digest, 64);
+            output.writeBoolean(etag != null);
+            if (etag != null) {
+                output.writeString(etag, 1024);
+            }
+            output.writeBoolean(lastModified != null);
+            if (lastModified != null) {
+                output.writeString(lastModified, 1024);
+            }
+            output.writeLong(checked);
+        }
+    }
+}
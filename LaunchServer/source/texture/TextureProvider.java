@@ -46,6 +46,7 @@ public abstract class TextureProvider extends ConfigObject implements AutoClosea
     static {
         registerProvider("void", VoidTextureProvider::new);
         registerProvider("delegate", DelegateTextureProvider::new);
+        registerProvider("cached", CachedTextureProvider::new);
 
         // Auth providers that doesn't do nothing :D
         registerProvider("mojang", MojangTextureProvider::new);
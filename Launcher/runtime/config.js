@@ -15,6 +15,9 @@ var config = {
     fullScreenDefault: false, // Should fullScreen be enabled by default?
     ramDefault: 1024, // Default RAM amount (0 for auto)
 
+    // Update config
+    updateThreads: 4, // Parallel connections for updating (1 to disable)
+
     // Custom JRE config (!!! DON'T CHANGE !!!)
     jvmMustdie32Dir: "jre-8u202-win32", jvmMustdie64Dir: "jre-8u202-win64",
     jvmLinux32Dir: "jre-8u202-linux32", jvmLinux64Dir: "jre-8u202-linux64",
@@ -89,6 +89,10 @@ function offlineUpdateRequest(dirName, dir, matcher, digest) {
 function makeUpdateRequest(dirName, dir, matcher, digest, callback) {
     var request = settings.offline ? { setStateCallback: function(stateCallback) { /* Ignored */ } } :
         new UpdateRequest(dirName, dir, matcher, digest);
+    if (!settings.offline) {
+        request.setCachedHDir(settings.lastHDirs.get(dirName));
+        request.setParallelism(config.updateThreads);
+    }
     var task = settings.offline ? newTask(offlineUpdateRequest(dirName, dir, matcher, digest)) :
         newRequestTask(request);
 
@@ -0,0 +1,168 @@
+package launcher.bench;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.TimeUnit;
+
+import launcher.Launcher;
+import launcher.hasher.HashedDir;
+import launcher.helper.IOHelper;
+import launcher.helper.SecurityHelper;
+import launcher.request.Request.Type;
+import launcher.serialize.HInput;
+import launcher.serialize.HOutput;
+import launcher.serialize.stream.EnumSerializer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SocketStreamBenchmark {
+    private static final int DIRS = 32;
+    private static final int FILES = 32; // Per dir
+
+    // Raw socket streams (before) or buffered ones (after)
+    @Param({ "false", "true" })
+    public boolean buffered;
+
+    // Instance
+    private Path dir;
+    private BigInteger modulus;
+    private HashedDir hdir;
+    private byte[] encoded;
+
+    @Benchmark
+    public HashedDir read(Calls calls) throws IOException {
+        InputStream stream = new CountingInputStream(new ByteArrayInputStream(encoded), calls);
+        try (HInput input = new HInput(buffered ? new BufferedInputStream(stream, IOHelper.BUFFER_SIZE) : stream)) {
+            if (input.readInt() != Launcher.PROTOCOL_MAGIC ||
+                !input.readBigInteger(SecurityHelper.RSA_KEY_LENGTH + 1).equals(modulus) || Type.read(input) != Type.UPDATE) {
+                throw new IOException("Handshake mismatch");
+            }
+            return new HashedDir(input);
+        }
+    }
+
+    @Benchmark
+    public void write(Calls calls) throws IOException {
+        OutputStream stream = new CountingOutputStream(calls);
+        try (HOutput output = new HOutput(buffered ? new BufferedOutputStream(stream, IOHelper.BUFFER_SIZE) : stream)) {
+            writeMessages(output);
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        modulus = ((RSAPublicKey) SecurityHelper.genRSAKeyPair().getPublic()).getModulus();
+
+        // Create and hash update dir
+        dir = Files.createTempDirectory("hdir");
+        for (int i = 0; i < DIRS; i++) {
+            Path subDir = Files.createDirectory(dir.resolve("dir" + i));
+            for (int j = 0; j < FILES; j++) {
+                IOHelper.write(subDir.resolve("file" + j + ".jar"), SecurityHelper.randomBytes(64));
+            }
+        }
+        hdir = new HashedDir(dir, null, false, true);
+
+        // Encode messages for reading
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (HOutput hOutput = new HOutput(output)) {
+            writeMessages(hOutput);
+        }
+        encoded = output.toByteArray();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        IOHelper.deleteDir(dir, true);
+    }
+
+    private void writeMessages(HOutput output) throws IOException {
+        // Handshake, as Request writes it
+        output.writeInt(Launcher.PROTOCOL_MAGIC);
+        output.writeBigInteger(modulus, SecurityHelper.RSA_KEY_LENGTH + 1);
+        EnumSerializer.write(output, Type.UPDATE);
+        output.flush();
+
+        // Update dir, as UpdateResponse writes it
+        hdir.write(output);
+        output.flush();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Calls {
+        public long streamCalls; // Each one is a read or write syscall on a socket
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            streamCalls = 0L;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final Calls calls;
+
+        private CountingInputStream(InputStream in, Calls calls) {
+            super(in);
+            this.calls = calls;
+        }
+
+        @Override
+        public int read() throws IOException {
+            calls.streamCalls++;
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            calls.streamCalls++;
+            return super.read(b, off, len);
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private final Calls calls;
+
+        private CountingOutputStream(Calls calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        public void write(int b) {
+            calls.streamCalls++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            calls.streamCalls++;
+        }
+    }
+}
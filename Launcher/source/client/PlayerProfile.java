@@ -2,7 +2,6 @@ package launcher.client;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.util.Objects;
 import java.util.UUID;
@@ -78,19 +77,20 @@ public final class PlayerProfile extends StreamObject {
 
         @LauncherAPI
         public Texture(String url, boolean cloak) throws IOException {
+            this(url, IOHelper.read(new URL(IOHelper.verifyURL(url))), cloak); // Fetch texture only once
+        }
+
+        @LauncherAPI
+        public Texture(String url, byte[] texture, boolean cloak) throws IOException {
             this.url = IOHelper.verifyURL(url);
 
-            // Fetch texture
-            byte[] texture;
-            try (InputStream input = IOHelper.newInput(new URL(url))) {
-                texture = IOHelper.read(input);
-            }
+            // Verify texture
             try (ByteArrayInputStream input = new ByteArrayInputStream(texture)) {
-                IOHelper.readTexture(input, cloak); // Verify texture
+                IOHelper.readTexture(input, cloak);
             }
 
-            // Get digest of texture
-            digest = SecurityHelper.digest(DIGEST_ALGO, new URL(url));
+            // Get digest of same bytes
+            digest = SecurityHelper.digest(DIGEST_ALGO, texture);
         }
 
         @LauncherAPI
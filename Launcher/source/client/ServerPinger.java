@@ -1,5 +1,7 @@
 package launcher.client;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -71,8 +73,8 @@ public final class ServerPinger {
     private Result doPing() throws IOException {
         try (Socket socket = IOHelper.newSocket()) {
             socket.connect(IOHelper.resolve(address), IOHelper.SOCKET_TIMEOUT);
-            try (HInput input = new HInput(socket.getInputStream());
-                HOutput output = new HOutput(socket.getOutputStream())) {
+            try (HInput input = new HInput(new BufferedInputStream(socket.getInputStream(), IOHelper.BUFFER_SIZE));
+                HOutput output = new HOutput(new BufferedOutputStream(socket.getOutputStream(), IOHelper.BUFFER_SIZE))) {
                 return version.compareTo(Version.MC172) >= 0 ? modernPing(input, output) : legacyPing(input, output, version.compareTo(Version.MC164) >= 0);
             }
         }
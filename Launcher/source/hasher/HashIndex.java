@@ -0,0 +1,132 @@
+package launcher.hasher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import launcher.LauncherAPI;
+import launcher.helper.IOHelper;
+import launcher.serialize.HInput;
+import launcher.serialize.HOutput;
+import launcher.serialize.stream.StreamObject;
+
+public final class HashIndex extends StreamObject {
+    private static final int MAGIC = 0x48494458; // "HIDX"
+    private static final long RACY_MILLIS = 2000L; // Modifications could be missed within mtime granularity
+
+    // Instance
+    private final long created = System.currentTimeMillis();
+    private final Map<String, Entry> previous = new ConcurrentHashMap<>(1024);
+    private final Map<String, Entry> current = new ConcurrentHashMap<>(1024);
+
+    @LauncherAPI
+    public HashIndex() {
+    }
+
+    @LauncherAPI
+    public HashIndex(HInput input) throws IOException {
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Hash index magic mismatch");
+        }
+
+        // Read entries
+        int count = input.readLength(0);
+        for (int i = 0; i < count; i++) {
+            String path = input.readString(0);
+            previous.put(path, new Entry(input));
+        }
+    }
+
+    @Override
+    public void write(HOutput output) throws IOException {
+        output.writeInt(MAGIC);
+
+        // Write entries of this walk only
+        Set<Map.Entry<String, Entry>> entries = current.entrySet();
+        output.writeLength(entries.size(), 0);
+        for (Map.Entry<String, Entry> entry : entries) {
+            output.writeString(entry.getKey(), 0);
+            entry.getValue().write(output);
+        }
+    }
+
+    @LauncherAPI
+    public byte[] getDigest(String path, BasicFileAttributes attrs) {
+        Entry entry = previous.get(path);
+        if (entry == null || !entry.isSame(attrs)) {
+            return null;
+        }
+
+        // Keep entry for next index write
+        current.put(path, entry);
+        return entry.digest.clone();
+    }
+
+    @LauncherAPI
+    public void putDigest(String path, BasicFileAttributes attrs, byte[] digest) {
+        Entry entry = new Entry(attrs, digest);
+        if (entry.modified < created - RACY_MILLIS) {
+            current.put(path, entry);
+        }
+    }
+
+    @LauncherAPI
+    public void write(Path file) throws IOException {
+        Path fileTmp = file.resolveSibling(IOHelper.getFileName(file) + ".tmp");
+        try (HOutput output = new HOutput(new BufferedOutputStream(IOHelper.newOutput(fileTmp), IOHelper.BUFFER_SIZE))) {
+            write(output);
+        }
+        IOHelper.move(fileTmp, file);
+    }
+
+    @LauncherAPI
+    public static HashIndex read(Path file) throws IOException {
+        try (HInput input = new HInput(new BufferedInputStream(IOHelper.newInput(file), IOHelper.BUFFER_SIZE))) {
+            return new HashIndex(input);
+        }
+    }
+
+    private static String getFileKey(BasicFileAttributes attrs) {
+        Object fileKey = attrs.fileKey();
+        return fileKey == null ? "" : fileKey.toString();
+    }
+
+    private static final class Entry extends StreamObject {
+        private final long size;
+        private final long modified;
+        private final String fileKey;
+        private final byte[] digest;
+
+        private Entry(BasicFileAttributes attrs, byte[] digest) {
+            size = attrs.size();
+            modified = attrs.lastModifiedTime().toMillis();
+            fileKey = getFileKey(attrs);
+            this.digest = HashedFile.DIGEST_ALGO.verify(digest).clone();
+        }
+
+        private Entry(HInput input) throws IOException {
+            size = input.readVarLong();
+            modified = input.readLong();
+            fileKey = input.readString(255);
+            digest = input.readByteArray(-HashedFile.DIGEST_ALGO.bytes);
+        }
+
+        @Override
+        public void write(HOutput output) throws IOException {
+            output.writeVarLong(size);
+            output.writeLong(modified);
+            output.writeString(fileKey, 255);
+            output.writeByteArray(digest, -HashedFile.DIGEST_ALGO.bytes);
+        }
+
+        private boolean isSame(BasicFileAttributes attrs) {
+            return size == attrs.size() && modified == attrs.lastModifiedTime().toMillis() &&
+                fileKey.equals(getFileKey(attrs));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package launcher.hasher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import launcher.LauncherAPI;
+import launcher.helper.IOHelper;
+import launcher.helper.SecurityHelper;
+import launcher.helper.VerifyHelper;
+import launcher.serialize.HInput;
+import launcher.serialize.HOutput;
+import launcher.serialize.stream.StreamObject;
+
+public final class HashedBlocks extends StreamObject {
+    @LauncherAPI public static final int MIN_BLOCK_SIZE = 2048;
+    @LauncherAPI public static final int MAX_BLOCK_SIZE = 65536;
+    @LauncherAPI public static final int MAX_BLOCKS = 1 << 20;
+
+    // Instance
+    @LauncherAPI public final int blockSize;
+    private final int[] weak;
+    private final byte[][] strong;
+
+    // Lookup table (weak << 32 | index), sorted, and 16-bit prefilter like in rsync
+    private long[] lookup;
+    private long[] filter;
+
+    @LauncherAPI
+    public HashedBlocks(Path file, int blockSize, long targetSize) throws IOException {
+        this.blockSize = verifyBlockSize(blockSize);
+
+        // Hash full blocks only (tail will be sent as literal), no more than target file could have
+        int count = (int) Math.min(Math.min(IOHelper.readAttributes(file).size() / blockSize,
+            getMaxBlocks(targetSize, blockSize)), MAX_BLOCKS);
+        int[] newWeak = new int[count];
+        byte[][] newStrong = new byte[count][];
+        MessageDigest digest = SecurityHelper.newDigest(HashedFile.DIGEST_ALGO);
+        RollingChecksum checksum = new RollingChecksum(blockSize);
+        try (InputStream input = IOHelper.newInput(file)) {
+            byte[] block = new byte[blockSize];
+            for (int i = 0; i < count; i++) {
+                if (!readBlock(input, block)) {
+                    count = i; // Truncated while hashing
+                    break;
+                }
+                checksum.reset();
+                checksum.update(block, 0, blockSize);
+                newWeak[i] = checksum.getValue();
+                newStrong[i] = digest.digest(block);
+            }
+        }
+        weak = Arrays.copyOf(newWeak, count);
+        strong = Arrays.copyOf(newStrong, count);
+    }
+
+    @LauncherAPI
+    public HashedBlocks(HInput input, long targetSize) throws IOException {
+        blockSize = verifyBlockSize(input.readVarInt());
+
+        // Verify count before allocating, by size of file being requested
+        int maxBlocks = (int) Math.min(getMaxBlocks(targetSize, blockSize), MAX_BLOCKS);
+        int count = input.readVarInt();
+        if (count < 0 || count > maxBlocks) {
+            throw new IOException(String.format("Illegal blocks count: %d (max %d)", count, maxBlocks));
+        }
+        weak = new int[count];
+        strong = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            weak[i] = input.readInt();
+            strong[i] = input.readByteArray(-HashedFile.DIGEST_ALGO.bytes);
+        }
+    }
+
+    @Override
+    public void write(HOutput output) throws IOException {
+        output.writeVarInt(blockSize);
+        output.writeLength(weak.length, MAX_BLOCKS);
+        for (int i = 0; i < weak.length; i++) {
+            output.writeInt(weak[i]);
+            output.writeByteArray(strong[i], -HashedFile.DIGEST_ALGO.bytes);
+        }
+    }
+
+    @LauncherAPI
+    public int count() {
+        return weak.length;
+    }
+
+    @LauncherAPI
+    public int find(int weakSum, ByteBuffer window, MessageDigest digest) {
+        long[] lookup = getLookup();
+        int tag = tag(weakSum);
+        if ((filter[tag >>> 6] & 1L << tag) == 0L) {
+            return -1; // Definitely no such block
+        }
+
+        // Find first block with same weak checksum
+        int i = Arrays.binarySearch(lookup, (long) weakSum << 32);
+        if (i < 0) {
+            i = -i - 1;
+        }
+
+        // Compare strong digests of all weak matches
+        byte[] windowDigest = null;
+        for (; i < lookup.length && (int) (lookup[i] >> 32) == weakSum; i++) {
+            if (windowDigest == null) {
+                digest.update(window);
+                windowDigest = digest.digest();
+            }
+            int index = (int) lookup[i];
+            if (Arrays.equals(strong[index], windowDigest)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private long[] getLookup() {
+        if (lookup == null) {
+            long[] newLookup = new long[weak.length];
+            long[] newFilter = new long[1 << 10];
+            for (int i = 0; i < weak.length; i++) {
+                newLookup[i] = (long) weak[i] << 32 | i;
+                int tag = tag(weak[i]);
+                newFilter[tag >>> 6] |= 1L << tag;
+            }
+            Arrays.sort(newLookup);
+            filter = newFilter;
+            lookup = newLookup;
+        }
+        return lookup;
+    }
+
+    @LauncherAPI
+    public static int getBlockSize(long fileSize) {
+        int blockSize = (int) Math.sqrt(fileSize) + 1023 & ~1023; // Like rsync, but aligned
+        return Math.max(MIN_BLOCK_SIZE, Math.min(blockSize, MAX_BLOCK_SIZE));
+    }
+
+    private static long getMaxBlocks(long targetSize, int blockSize) {
+        return (targetSize + blockSize - 1) / blockSize;
+    }
+
+    private static boolean readBlock(InputStream input, byte[] block) throws IOException {
+        int offset = 0;
+        while (offset < block.length) {
+            int length = input.read(block, offset, block.length - offset);
+            if (length < 0) {
+                return false;
+            }
+            offset += length;
+        }
+        return true;
+    }
+
+    private static int tag(int weakSum) {
+        return (weakSum ^ weakSum >>> 16) & 0xFFFF;
+    }
+
+    private static int verifyBlockSize(int blockSize) {
+        return VerifyHelper.verifyInt(blockSize, b -> b >= MIN_BLOCK_SIZE && b <= MAX_BLOCK_SIZE,
+            String.format("Invalid block size: %d", blockSize));
+    }
+}
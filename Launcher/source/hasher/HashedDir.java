@@ -5,6 +5,7 @@ import java.nio.file.FileVisitResult;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
@@ -12,16 +13,27 @@ import java.util.LinkedList;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
 
 import launcher.LauncherAPI;
 import launcher.helper.IOHelper;
+import launcher.helper.SecurityHelper;
 import launcher.helper.VerifyHelper;
 import launcher.serialize.HInput;
 import launcher.serialize.HOutput;
 import launcher.serialize.stream.EnumSerializer;
 
 public final class HashedDir extends HashedEntry {
+    @LauncherAPI public static final int HASH_THREADS = VerifyHelper.verifyInt(
+        Integer.parseInt(System.getProperty("launcher.hashThreads", Integer.toString(Runtime.getRuntime().availableProcessors()))),
+        VerifyHelper.POSITIVE, "launcher.hashThreads can't be <= 0");
+    private static final ForkJoinPool HASH_POOL = HASH_THREADS > 1 ? new ForkJoinPool(HASH_THREADS) : null;
+
+    // Instance
     private final Map<String, HashedEntry> map = new HashMap<>(32);
+    private volatile Map<String, HashedEntry> pathIndex;
 
     @LauncherAPI
     public HashedDir() {
@@ -29,7 +41,18 @@ public final class HashedDir extends HashedEntry {
 
     @LauncherAPI
     public HashedDir(Path dir, FileNameMatcher matcher, boolean allowSymlinks, boolean digest) throws IOException {
-        IOHelper.walk(dir, new HashFileVisitor(dir, matcher, allowSymlinks, digest), true);
+        this(dir, matcher, allowSymlinks, digest, null);
+    }
+
+    @LauncherAPI
+    public HashedDir(Path dir, FileNameMatcher matcher, boolean allowSymlinks, boolean digest, HashIndex index) throws IOException {
+        HashFileVisitor visitor = new HashFileVisitor(dir, matcher, allowSymlinks, digest, index);
+        try {
+            IOHelper.walk(dir, visitor, true);
+            visitor.completeHashing();
+        } finally {
+            visitor.cancelHashing();
+        }
     }
 
     @LauncherAPI
@@ -103,6 +126,18 @@ public final class HashedDir extends HashedEntry {
         return Collections.unmodifiableMap(map);
     }
 
+    @LauncherAPI
+    public Map<String, HashedEntry> pathIndex() {
+        Map<String, HashedEntry> index = pathIndex;
+        if (index == null) { // Build flat index on first use
+            Map<String, HashedEntry> newIndex = new HashMap<>(256);
+            fillPathIndex(newIndex, "");
+            index = Collections.unmodifiableMap(newIndex);
+            pathIndex = index;
+        }
+        return index;
+    }
+
     @LauncherAPI
     public HashedEntry resolve(Iterable<String> path) {
         HashedEntry current = this;
@@ -116,6 +151,17 @@ public final class HashedDir extends HashedEntry {
         return current;
     }
 
+    private void fillPathIndex(Map<String, HashedEntry> index, String prefix) {
+        for (Entry<String, HashedEntry> mapEntry : map.entrySet()) {
+            String path = prefix + mapEntry.getKey();
+            HashedEntry entry = mapEntry.getValue();
+            index.put(path, entry);
+            if (entry.getType() == Type.DIR) {
+                ((HashedDir) entry).fillPathIndex(index, path + '/');
+            }
+        }
+    }
+
     private HashedDir sideDiff(HashedDir other, FileNameMatcher matcher, Deque<String> path, boolean mismatchList) {
         HashedDir diff = new HashedDir();
         for (Entry<String, HashedEntry> mapEntry : map.entrySet()) {
@@ -176,17 +222,20 @@ public final class HashedDir extends HashedEntry {
         private final FileNameMatcher matcher;
         private final boolean allowSymlinks;
         private final boolean digest;
+        private final HashIndex index;
 
         // State
         private HashedDir current = HashedDir.this;
         private final Deque<String> path = new LinkedList<>();
         private final Deque<HashedDir> stack = new LinkedList<>();
+        private final Collection<PendingFile> pending = new LinkedList<>();
 
-        private HashFileVisitor(Path dir, FileNameMatcher matcher, boolean allowSymlinks, boolean digest) {
+        private HashFileVisitor(Path dir, FileNameMatcher matcher, boolean allowSymlinks, boolean digest, HashIndex index) {
             this.dir = dir;
             this.matcher = matcher;
             this.allowSymlinks = allowSymlinks;
             this.digest =  digest;
+            this.index = index;
         }
 
         @Override
@@ -235,11 +284,78 @@ public final class HashedDir extends HashedEntry {
             }
 
             // Add file (may be unhashed, if exclusion)
-            path.add(IOHelper.getFileName(file));
+            String name = IOHelper.getFileName(file);
+            path.add(name);
             boolean doDigest = digest && (matcher == null || matcher.shouldUpdate(path));
-            current.map.put(path.removeLast(), new HashedFile(file, attrs.size(), doDigest));
+            if (!doDigest) {
+                current.map.put(name, new HashedFile(file, attrs.size(), false));
+            } else if (HASH_POOL != null) {
+                // Placeholder keeps map order the same as sequential hashing
+                String filePath = String.join("/", path);
+                current.map.put(name, null);
+                FutureTask<HashedFile> task = new FutureTask<>(() -> hashFile(file, attrs, filePath));
+                HASH_POOL.execute(task); // Not submit(), it would wrap IOException into RuntimeException
+                pending.add(new PendingFile(current, name, task));
+            } else {
+                current.map.put(name, hashFile(file, attrs, String.join("/", path)));
+            }
+            path.removeLast();
             return super.visitFile(file, attrs);
         }
+
+        private void cancelHashing() {
+            for (PendingFile pendingFile : pending) {
+                pendingFile.task.cancel(false);
+            }
+        }
+
+        private void completeHashing() throws IOException {
+            for (PendingFile pendingFile : pending) {
+                HashedFile hFile;
+                try {
+                    hFile = pendingFile.task.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IOException(cause);
+                }
+                pendingFile.dir.map.put(pendingFile.name, hFile);
+            }
+        }
+
+        private HashedFile hashFile(Path file, BasicFileAttributes attrs, String filePath) throws IOException {
+            if (index == null) {
+                return new HashedFile(file, attrs.size(), true);
+            }
+
+            // Reuse indexed digest if file is unchanged
+            byte[] fileDigest = index.getDigest(filePath, attrs);
+            if (fileDigest == null) { // New or modified file
+                fileDigest = SecurityHelper.digest(HashedFile.DIGEST_ALGO, file);
+                index.putDigest(filePath, attrs, fileDigest);
+            }
+            return new HashedFile(attrs.size(), fileDigest);
+        }
+    }
+
+    private static final class PendingFile {
+        private final HashedDir dir;
+        private final String name;
+        private final FutureTask<HashedFile> task;
+
+        private PendingFile(HashedDir dir, String name, FutureTask<HashedFile> task) {
+            this.dir = dir;
+            this.name = name;
+            this.task = task;
+        }
     }
 
     public static final class Diff {
@@ -0,0 +1,44 @@
+package launcher.hasher;
+
+import launcher.LauncherAPI;
+
+public final class RollingChecksum {
+    private final int length;
+    private int a;
+    private int b;
+
+    @LauncherAPI
+    public RollingChecksum(int length) {
+        this.length = length;
+    }
+
+    @LauncherAPI
+    public int getValue() {
+        return a & 0xFFFF | (b & 0xFFFF) << 16;
+    }
+
+    @LauncherAPI
+    public void reset() {
+        a = 0;
+        b = 0;
+    }
+
+    @LauncherAPI
+    public void roll(byte out, byte in) {
+        a += (in & 0xFF) - (out & 0xFF);
+        b += a - length * (out & 0xFF);
+    }
+
+    @LauncherAPI
+    public void update(byte in) {
+        a += in & 0xFF;
+        b += a;
+    }
+
+    @LauncherAPI
+    public void update(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            update(bytes[i]);
+        }
+    }
+}
@@ -26,8 +26,14 @@ import java.security.spec.X509EncodedKeySpec;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.jar.JarFile;
+import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
 
 import launcher.LauncherAPI;
@@ -53,9 +59,27 @@ public final class SecurityHelper {
     private static final char[] VOWELS = { 'e', 'u', 'i', 'o', 'a' };
     private static final char[] CONS = { 'r', 't', 'p', 's', 'd', 'f', 'g', 'h', 'k', 'l', 'c', 'v', 'b', 'n', 'm' };
 
+    // Pooled initialized ciphers and signatures (ThreadLocal is useless with virtual threads)
+    private static final int CRYPTO_POOL_SIZE = VerifyHelper.verifyInt(
+        Integer.parseInt(System.getProperty("launcher.cryptoPoolSize", Integer.toString(Runtime.getRuntime().availableProcessors()))),
+        VerifyHelper.POSITIVE, "launcher.cryptoPoolSize can't be <= 0");
+    private static final Map<Key, CryptoPool<Cipher>> DECRYPT_POOLS = new ConcurrentHashMap<>(2);
+    private static final Map<Key, CryptoPool<Signature>> SIGN_POOLS = new ConcurrentHashMap<>(2);
+    private static final Map<Key, CryptoPool<Signature>> VERIFY_POOLS = new ConcurrentHashMap<>(2);
+
     private SecurityHelper() {
     }
 
+    @LauncherAPI
+    public static byte[] decrypt(byte[] bytes, RSAPrivateKey privateKey) throws IllegalBlockSizeException, BadPaddingException {
+        CryptoPool<Cipher> pool = DECRYPT_POOLS.computeIfAbsent(privateKey,
+            k -> new CryptoPool<>(() -> newRSADecryptCipher(privateKey)));
+        Cipher cipher = pool.take();
+        byte[] decrypted = cipher.doFinal(bytes);
+        pool.release(cipher); // Not released on error, as cipher state is undefined then
+        return decrypted;
+    }
+
     @LauncherAPI
     public static byte[] digest(DigestAlgorithm algo, String s) {
         return digest(algo, IOHelper.encode(s));
@@ -142,20 +166,26 @@ public final class SecurityHelper {
 
     @LauncherAPI
     public static boolean isValidSign(byte[] bytes, byte[] sign, RSAPublicKey publicKey) throws SignatureException {
-        Signature signature = newRSAVerifySignature(publicKey);
+        CryptoPool<Signature> pool = getVerifyPool(publicKey);
+        Signature signature = pool.take();
         try {
             signature.update(bytes);
         } catch (SignatureException e) {
             throw new InternalError(e);
         }
-        return signature.verify(sign);
+        boolean valid = signature.verify(sign);
+        pool.release(signature);
+        return valid;
     }
 
     @LauncherAPI
     public static boolean isValidSign(InputStream input, byte[] sign, RSAPublicKey publicKey) throws IOException, SignatureException {
-        Signature signature = newRSAVerifySignature(publicKey);
+        CryptoPool<Signature> pool = getVerifyPool(publicKey);
+        Signature signature = pool.take();
         updateSignature(input, signature);
-        return signature.verify(sign);
+        boolean valid = signature.verify(sign);
+        pool.release(signature);
+        return valid;
     }
 
     @LauncherAPI
@@ -318,10 +348,13 @@ public final class SecurityHelper {
 
     @LauncherAPI
     public static byte[] sign(InputStream input, RSAPrivateKey privateKey) throws IOException {
-        Signature signature = newRSASignSignature(privateKey);
+        CryptoPool<Signature> pool = getSignPool(privateKey);
+        Signature signature = pool.take();
         updateSignature(input, signature);
         try {
-            return signature.sign();
+            byte[] sign = signature.sign();
+            pool.release(signature);
+            return sign;
         } catch (SignatureException e) {
             throw new InternalError(e);
         }
@@ -329,10 +362,13 @@ public final class SecurityHelper {
 
     @LauncherAPI
     public static byte[] sign(byte[] bytes, RSAPrivateKey privateKey) {
-        Signature signature = newRSASignSignature(privateKey);
+        CryptoPool<Signature> pool = getSignPool(privateKey);
+        Signature signature = pool.take();
         try {
             signature.update(bytes);
-            return signature.sign();
+            byte[] sign = signature.sign();
+            pool.release(signature);
+            return sign;
         } catch (SignatureException e) {
             throw new InternalError(e);
         }
@@ -409,6 +445,14 @@ public final class SecurityHelper {
         return VerifyHelper.verify(token, SecurityHelper::isValidToken, String.format("Invalid token: '%s'", token));
     }
 
+    private static CryptoPool<Signature> getSignPool(RSAPrivateKey privateKey) {
+        return SIGN_POOLS.computeIfAbsent(privateKey, k -> new CryptoPool<>(() -> newRSASignSignature(privateKey)));
+    }
+
+    private static CryptoPool<Signature> getVerifyPool(RSAPublicKey publicKey) {
+        return VERIFY_POOLS.computeIfAbsent(publicKey, k -> new CryptoPool<>(() -> newRSAVerifySignature(publicKey)));
+    }
+
     private static Cipher newCipher(String algo) {
         // IDK Why, but collapsing catch blocks makes ProGuard generate invalid stackmap
         try {
@@ -457,6 +501,24 @@ public final class SecurityHelper {
         }
     }
 
+    private static final class CryptoPool<T> {
+        private final BlockingQueue<T> pool = new ArrayBlockingQueue<>(CRYPTO_POOL_SIZE);
+        private final Supplier<T> factory;
+
+        private CryptoPool(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        private void release(T object) {
+            pool.offer(object); // Dropped if pool is full
+        }
+
+        private T take() {
+            T object = pool.poll();
+            return object == null ? factory.get() : object;
+        }
+    }
+
     @LauncherAPI
     public enum DigestAlgorithm {
         PLAIN("plain", -1), MD5("MD5", 128), SHA1("SHA-1", 160), SHA224("SHA-224", 224), SHA256("SHA-256", 256), SHA512("SHA-512", 512);
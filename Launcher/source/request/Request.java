@@ -1,5 +1,7 @@
 package launcher.request;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.net.Socket;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -43,9 +45,10 @@ public abstract class Request<R> {
 
         // Make request to LaunchServer
         try (Socket socket = IOHelper.newSocket()) {
+            socket.setTcpNoDelay(true); // Streams are buffered and flushed explicitly
             socket.connect(IOHelper.resolve(config.address));
-            try (HInput input = new HInput(socket.getInputStream());
-                HOutput output = new HOutput(socket.getOutputStream())) {
+            try (HInput input = new HInput(new BufferedInputStream(socket.getInputStream(), IOHelper.BUFFER_SIZE));
+                HOutput output = new HOutput(new BufferedOutputStream(socket.getOutputStream(), IOHelper.BUFFER_SIZE))) {
                 writeHandshake(input, output);
                 return requestDo(input, output);
             }
@@ -0,0 +1,170 @@
+package launcher.request.update;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import launcher.hasher.HashedFile;
+import launcher.helper.IOHelper;
+import launcher.helper.LogHelper;
+import launcher.helper.SecurityHelper;
+import launcher.serialize.HInput;
+import launcher.serialize.HOutput;
+
+/*package*/ final class PartialDownload implements AutoCloseable {
+    /*package*/ static final int CHUNK_SIZE = 1 << 20;
+
+    // Instance
+    private final Path sidecarFile;
+    /*package*/ final String path;
+    private final long size;
+    private final byte[] digest;
+    private final List<byte[]> chunks;
+
+    // Sidecar output (opened on first chunk)
+    private HOutput output;
+
+    private PartialDownload(Path sidecarFile, String path, long size, byte[] digest, List<byte[]> chunks) {
+        this.sidecarFile = sidecarFile;
+        this.path = path;
+        this.size = size;
+        this.digest = digest;
+        this.chunks = chunks;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+
+    /*package*/ void addChunk(byte[] chunkDigest) throws IOException {
+        if (output == null) {
+            output = new HOutput(IOHelper.newOutput(sidecarFile, true));
+        }
+
+        // Append chunk digest (chunk data is already flushed)
+        output.writeByteArray(chunkDigest, -HashedFile.DIGEST_ALGO.bytes);
+        output.flush();
+        chunks.add(chunkDigest);
+    }
+
+    /*package*/ void delete() throws IOException {
+        close();
+        Files.deleteIfExists(sidecarFile);
+    }
+
+    /*package*/ boolean isFor(String path, HashedFile hFile) {
+        return this.path.equals(path) && size == hFile.size && hFile.isSameDigest(digest);
+    }
+
+    /*package*/ long verify(Path file, MessageDigest fileDigest) throws IOException {
+        if (!IOHelper.isFile(file)) {
+            return 0L;
+        }
+
+        // Verify recorded chunks, stop on first mismatch
+        long verified = 0L;
+        int verifiedChunks = 0;
+        try (InputStream input = new BufferedInputStream(IOHelper.newInput(file), IOHelper.BUFFER_SIZE)) {
+            byte[] chunk = new byte[CHUNK_SIZE];
+            for (byte[] chunkDigest : chunks) {
+                if (!readChunk(input, chunk)) {
+                    break; // Not fully written
+                }
+                if (!Arrays.equals(SecurityHelper.digest(HashedFile.DIGEST_ALGO, chunk), chunkDigest)) {
+                    break; // Corrupted
+                }
+
+                // Chunk is fine
+                if (fileDigest != null) {
+                    fileDigest.update(chunk);
+                }
+                verified += CHUNK_SIZE;
+                verifiedChunks++;
+            }
+        }
+
+        // Drop unverified tail
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(verified);
+        }
+        if (verifiedChunks < chunks.size()) {
+            chunks.subList(verifiedChunks, chunks.size()).clear();
+            rewrite();
+        }
+        return verified;
+    }
+
+    private void rewrite() throws IOException {
+        close();
+        try (HOutput output = new HOutput(IOHelper.newOutput(sidecarFile))) {
+            writeHeader(output, path, size, digest);
+            for (byte[] chunkDigest : chunks) {
+                output.writeByteArray(chunkDigest, -HashedFile.DIGEST_ALGO.bytes);
+            }
+        }
+    }
+
+    /*package*/ static PartialDownload create(Path sidecarFile, String path, HashedFile hFile) throws IOException {
+        byte[] digest = hFile.getDigest();
+        try (HOutput output = new HOutput(IOHelper.newOutput(sidecarFile))) {
+            writeHeader(output, path, hFile.size, digest);
+        }
+        return new PartialDownload(sidecarFile, path, hFile.size, digest, new ArrayList<>(16));
+    }
+
+    /*package*/ static PartialDownload read(Path sidecarFile) {
+        if (!IOHelper.isFile(sidecarFile)) {
+            return null;
+        }
+
+        // Read header and all fully written chunk digests
+        try (HInput input = new HInput(new BufferedInputStream(IOHelper.newInput(sidecarFile), IOHelper.BUFFER_SIZE))) {
+            String path = input.readString(0);
+            long size = input.readVarLong();
+            byte[] digest = input.readByteArray(-HashedFile.DIGEST_ALGO.bytes);
+            List<byte[]> chunks = new ArrayList<>(16);
+            try {
+                while (true) {
+                    chunks.add(input.readByteArray(-HashedFile.DIGEST_ALGO.bytes));
+                }
+            } catch (EOFException ignored) {
+                // End of sidecar
+            }
+            return new PartialDownload(sidecarFile, path, size, digest, chunks);
+        } catch (IOException e) {
+            LogHelper.debug("Can't read partial download: %s", e);
+            return null;
+        }
+    }
+
+    private static boolean readChunk(InputStream input, byte[] chunk) throws IOException {
+        int offset = 0;
+        while (offset < chunk.length) {
+            int length = input.read(chunk, offset, chunk.length - offset);
+            if (length < 0) {
+                return false;
+            }
+            offset += length;
+        }
+        return true;
+    }
+
+    private static void writeHeader(HOutput output, String path, long size, byte[] digest) throws IOException {
+        output.writeString(path, 0);
+        output.writeVarLong(size);
+        output.writeByteArray(digest, -HashedFile.DIGEST_ALGO.bytes);
+    }
+}
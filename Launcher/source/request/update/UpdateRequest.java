@@ -1,31 +1,55 @@
 package launcher.request.update;
 
+import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.SignatureException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 
 import launcher.Launcher.Config;
 import launcher.LauncherAPI;
 import launcher.hasher.FileNameMatcher;
+import launcher.hasher.HashedBlocks;
 import launcher.hasher.HashedDir;
 import launcher.hasher.HashedDir.Diff;
 import launcher.hasher.HashedEntry;
 import launcher.hasher.HashedFile;
+import launcher.helper.CommonHelper;
 import launcher.helper.IOHelper;
 import launcher.helper.SecurityHelper;
 import launcher.helper.SecurityHelper.DigestAlgorithm;
+import launcher.helper.VerifyHelper;
 import launcher.request.Request;
 import launcher.request.update.UpdateRequest.State.Callback;
 import launcher.serialize.HInput;
@@ -37,20 +61,34 @@ import launcher.serialize.stream.StreamObject;
 
 public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>> {
     @LauncherAPI public static final int MAX_QUEUE_SIZE = 128;
+    @LauncherAPI public static final int MAX_LITERAL_SIZE = 65536;
+    @LauncherAPI public static final long DELTA_MIN_SIZE = 65536;
 
     // Instance
     private final String dirName;
     private final Path dir;
     private final FileNameMatcher matcher;
     private final boolean digest;
+    private final Path partialFile;
     private volatile Callback stateCallback;
+    private volatile int parallelism = 1;
+    private volatile SignedObjectHolder<HashedDir> cachedHDir;
 
     // State
     private HashedDir localDir;
-    private long totalDownloaded;
+    private PartialDownload partial;
+    private MessageDigest partialDigest;
+    private boolean partialResumed;
+    private final AtomicLong totalDownloaded = new AtomicLong(0L);
+    private final Lock stateLock = new ReentrantLock();
     private long totalSize;
     private Instant startTime;
 
+    // Sessions abort (first error wins, streams are closed to unblock reads)
+    private final AtomicBoolean aborted = new AtomicBoolean(false);
+    private final Queue<Closeable> sessionStreams = new ConcurrentLinkedQueue<>();
+    private volatile Throwable abortError;
+
     @LauncherAPI
     public UpdateRequest(Config config, String dirName, Path dir, FileNameMatcher matcher, boolean digest) {
         super(config);
@@ -58,6 +96,7 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
         this.dir = Objects.requireNonNull(dir, "dir");
         this.matcher = matcher;
         this.digest = digest;
+        partialFile = dir.resolveSibling(IOHelper.getFileName(dir) + ".partial");
     }
 
     @LauncherAPI
@@ -81,34 +120,111 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
 
     @Override
     protected SignedObjectHolder<HashedDir> requestDo(HInput input, HOutput output) throws IOException, SignatureException {
-        // Write update dir name
+        // Write update dir name and sign of cached hdir
+        SignedObjectHolder<HashedDir> cachedHDirHolder = cachedHDir;
         output.writeString(dirName, 255);
+        writeCachedSign(output, cachedHDirHolder == null ? null : cachedHDirHolder.getSign());
         output.flush();
         readError(input);
 
-        // Get diff between local and remote dir
-        SignedObjectHolder<HashedDir> remoteHDirHolder = new SignedObjectHolder<>(input, config.publicKey, HashedDir::new);
+        // Get diff between local and remote dir (cached hdir is reused if not changed)
+        SignedObjectHolder<HashedDir> remoteHDirHolder = input.readBoolean() ?
+            new SignedObjectHolder<>(input, config.publicKey, HashedDir::new) : cachedHDirHolder;
+        if (remoteHDirHolder == null) {
+            throw new IOException("Serverside returned no update dir");
+        }
         Diff diff = remoteHDirHolder.object.diff(localDir, matcher);
         totalSize = diff.mismatch.size();
         boolean compress = input.readBoolean();
 
-        // Build actions queue
+        // Build actions queue (resume partial download, if any)
+        partial = PartialDownload.read(partialFile);
+        List<Set<HashedEntry>> partitions = partitionFiles(diff.mismatch);
         Queue<Action> queue = new LinkedList<>();
-        fillActionsQueue(queue, diff.mismatch);
+        fillActionsQueue(queue, diff.mismatch, dir, partitions == null ? null : partitions.get(0), true);
         queue.add(Action.FINISH);
 
-        // noinspection IOResourceOpenedButNotSafelyClosed
-        InputStream fileInput = compress ? new InflaterInputStream(input.stream, IOHelper.newInflater(), IOHelper.BUFFER_SIZE) : input.stream;
-
-        // Download missing first
+        // Download missing first, other partitions in parallel sessions
         // (otherwise it will cause mustdie indexing bug)
         startTime = Instant.now();
+        sessionStreams.add(input.stream);
+        List<FutureTask<Void>> sessions = new ArrayList<>(partitions == null ? 0 : partitions.size() - 1);
+        try {
+            startSessions(sessions, partitions, diff.mismatch, remoteHDirHolder.getSign());
+            performActions(input, output, queue, compress, true);
+        } catch (Throwable exc) {
+            abortSessions(exc); // No-op if aborted by failed session
+        } finally {
+            joinSessions(sessions);
+            if (partial != null) {
+                partial.close();
+            }
+        }
+        rethrowAbortError();
+
+        // Write update completed packet
+        deleteExtraDir(dir, diff.extra, diff.extra.flag);
+        return remoteHDirHolder;
+    }
+
+    @LauncherAPI
+    public void setCachedHDir(SignedObjectHolder<HashedDir> cachedHDir) {
+        this.cachedHDir = cachedHDir;
+    }
+
+    @LauncherAPI
+    public void setParallelism(int parallelism) {
+        this.parallelism = VerifyHelper.verifyInt(parallelism, VerifyHelper.POSITIVE, "parallelism can't be <= 0");
+    }
+
+    @LauncherAPI
+    public void setStateCallback(Callback callback) {
+        stateCallback = callback;
+    }
+
+    private void abortSessions(Throwable exc) {
+        if (!aborted.compareAndSet(false, true)) {
+            return;
+        }
+
+        // Remember first error and unblock all sessions
+        abortError = exc;
+        for (Closeable stream : sessionStreams) {
+            IOHelper.close(stream);
+        }
+    }
+
+    private void joinSessions(Iterable<FutureTask<Void>> sessions) {
+        boolean interrupted = false;
+        for (FutureTask<Void> session : sessions) {
+            boolean done = false;
+            while (!done) {
+                try {
+                    session.get();
+                    done = true;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    abortSessions(new IOException("Update interrupted", e)); // Still wait, sessions write to dir
+                } catch (ExecutionException ignored) {
+                    done = true; // Error is rethrown by main session
+                }
+            }
+        }
+
+        // Restore interrupt status
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void performActions(HInput input, HOutput output, Queue<Action> queue, boolean compress, boolean resumable) throws IOException {
         Path currentDir = dir;
         Action[] actionsSlice = new Action[MAX_QUEUE_SIZE];
         while (!queue.isEmpty()) {
             int length = Math.min(queue.size(), MAX_QUEUE_SIZE);
 
             // Write actions slice
+            checkAborted();
             output.writeLength(length, MAX_QUEUE_SIZE);
             for (int i = 0; i < length; i++) {
                 Action action = queue.remove();
@@ -119,6 +235,7 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
 
             // Perform actions
             for (int i = 0; i < length; i++) {
+                checkAborted();
                 Action action = actionsSlice[i];
                 switch (action.type) {
                     case CD:
@@ -127,10 +244,24 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
                         break;
                     case GET:
                         Path targetFile = currentDir.resolve(action.name);
-                        if (fileInput.read() != 0xFF) {
+                        if (input.readUnsignedByte() != 0xFF) {
+                            throw new IOException("Serverside cached size mismath for file " + action.name);
+                        }
+                        if (compress && input.readBoolean()) {
+                            if (action.offset > 0L) {
+                                throw new IOException("Deflated resumed file " + action.name);
+                            }
+                            downloadDeflatedFile(targetFile, (HashedFile) action.entry, input.stream, input.readVarLong(), resumable);
+                            break;
+                        }
+                        downloadFile(targetFile, (HashedFile) action.entry, input.stream, action.offset, resumable);
+                        break;
+                    case DELTA:
+                        Path deltaFile = currentDir.resolve(action.name);
+                        if (input.readUnsignedByte() != 0xFF) {
                             throw new IOException("Serverside cached size mismath for file " + action.name);
                         }
-                        downloadFile(targetFile, (HashedFile) action.entry, fileInput);
+                        downloadDelta(deltaFile, (HashedFile) action.entry, action.blocks, input);
                         break;
                     case CD_BACK:
                         currentDir = currentDir.getParent();
@@ -142,15 +273,12 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
                 }
             }
         }
-
-        // Write update completed packet
-        deleteExtraDir(dir, diff.extra, diff.extra.flag);
-        return remoteHDirHolder;
     }
 
-    @LauncherAPI
-    public void setStateCallback(Callback callback) {
-        stateCallback = callback;
+    private void checkAborted() throws IOException {
+        if (aborted.get()) {
+            throw new IOException("Update aborted");
+        }
     }
 
     private void deleteExtraDir(Path subDir, HashedDir subHDir, boolean flag) throws IOException {
@@ -181,19 +309,37 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
         }
     }
 
-    private void downloadFile(Path file, HashedFile hFile, InputStream input) throws IOException {
+    private void downloadFile(Path file, HashedFile hFile, InputStream input, long offset, boolean resumable) throws IOException {
         String filePath = IOHelper.toString(dir.relativize(file));
-        updateState(filePath, 0L, hFile.size);
-
-        // Start file update
-        MessageDigest digest = this.digest ? SecurityHelper.newDigest(DigestAlgorithm.MD5) : null;
-        try (OutputStream fileOutput = IOHelper.newOutput(file)) {
-            long downloaded = 0L;
+        totalDownloaded.addAndGet(offset);
+        updateState(filePath, offset, hFile.size);
+
+        // Resume or start file update
+        MessageDigest digest;
+        MessageDigest chunkDigest = null;
+        if (offset > 0L) {
+            digest = partialDigest;
+            chunkDigest = SecurityHelper.newDigest(DigestAlgorithm.MD5);
+        } else {
+            digest = this.digest ? SecurityHelper.newDigest(DigestAlgorithm.MD5) : null;
+            if (resumable && hFile.size > PartialDownload.CHUNK_SIZE && hFile.getDigest() != null && !partialResumed) {
+                if (partial != null) {
+                    partial.close();
+                }
+                partial = PartialDownload.create(partialFile, filePath, hFile);
+                chunkDigest = SecurityHelper.newDigest(DigestAlgorithm.MD5);
+            }
+        }
+        try (OutputStream fileOutput = IOHelper.newOutput(file, offset > 0L)) {
+            long downloaded = offset;
 
             // Download with digest update
             byte[] bytes = IOHelper.newBuffer();
             while (downloaded < hFile.size) {
                 int remaining = (int) Math.min(hFile.size - downloaded, bytes.length);
+                if (chunkDigest != null) { // Don't cross chunk bounds
+                    remaining = (int) Math.min(remaining, PartialDownload.CHUNK_SIZE - downloaded % PartialDownload.CHUNK_SIZE);
+                }
                 int length = input.read(bytes, 0, remaining);
                 if (length < 0) {
                     throw new EOFException(String.format("%d bytes remaining", hFile.size - downloaded));
@@ -205,13 +351,29 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
                     digest.update(bytes, 0, length);
                 }
 
-                // Update state
+                // Record completed chunk
                 downloaded += length;
-                totalDownloaded += length;
+                if (chunkDigest != null) {
+                    chunkDigest.update(bytes, 0, length);
+                    if (downloaded % PartialDownload.CHUNK_SIZE == 0L) {
+                        fileOutput.flush();
+                        partial.addChunk(chunkDigest.digest());
+                    }
+                }
+
+                // Update state
+                totalDownloaded.addAndGet(length);
                 updateState(filePath, downloaded, hFile.size);
             }
         }
 
+        // File is complete, even if digest mismatches it shouldn't be resumed
+        if (chunkDigest != null) {
+            partial.delete();
+            partial = null;
+            partialResumed = false;
+        }
+
         // Verify digest
         if (digest != null) {
             byte[] digestBytes = digest.digest();
@@ -221,7 +383,74 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
         }
     }
 
-    private static void fillActionsQueue(Queue<Action> queue, HashedDir mismatch) {
+    private void downloadDelta(Path file, HashedFile hFile, HashedBlocks blocks, HInput input) throws IOException {
+        String filePath = IOHelper.toString(dir.relativize(file));
+        updateState(filePath, 0L, hFile.size);
+
+        // Rebuild file from local blocks and literals
+        Path fileTmp = file.resolveSibling(IOHelper.getFileName(file) + ".delta");
+        MessageDigest digest = SecurityHelper.newDigest(DigestAlgorithm.MD5);
+        long downloaded = 0L;
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+            OutputStream fileOutput = IOHelper.newOutput(fileTmp)) {
+            byte[] bytes = new byte[Math.max(blocks.blockSize, MAX_LITERAL_SIZE)];
+            loop:
+            while (true) {
+                int length;
+                DeltaType type = DeltaType.read(input);
+                switch (type) {
+                    case COPY:
+                        int index = input.readVarInt();
+                        if (index < 0 || index >= blocks.count()) {
+                            throw new IOException(String.format("Invalid block index: %d", index));
+                        }
+                        length = blocks.blockSize;
+                        readBlock(source, (long) index * blocks.blockSize, ByteBuffer.wrap(bytes, 0, length));
+                        break;
+                    case LITERAL:
+                        length = input.readLength(MAX_LITERAL_SIZE);
+                        readLiteral(input.stream, bytes, length);
+                        break;
+                    case END:
+                        break loop;
+                    default:
+                        throw new AssertionError(String.format("Unsupported delta type: '%s'", type.name()));
+                }
+
+                // Update file
+                if (downloaded + length > hFile.size) {
+                    throw new IOException(String.format("Delta exceeds file size: '%s'", filePath));
+                }
+                fileOutput.write(bytes, 0, length);
+                digest.update(bytes, 0, length);
+
+                // Update state
+                downloaded += length;
+                totalDownloaded.addAndGet(length);
+                updateState(filePath, downloaded, hFile.size);
+            }
+        }
+
+        // Verify rebuilt file (always, weak checksums could collide)
+        if (downloaded != hFile.size || !hFile.isSameDigest(digest.digest())) {
+            Files.delete(fileTmp);
+            throw new SecurityException(String.format("File digest mismatch: '%s'", filePath));
+        }
+        IOHelper.move(fileTmp, file);
+    }
+
+    private void downloadDeflatedFile(Path file, HashedFile hFile, InputStream input, long length, boolean resumable) throws IOException {
+        LimitedInputStream compressedInput = new LimitedInputStream(input, length);
+        Inflater inflater = IOHelper.newInflater();
+        try {
+            downloadFile(file, hFile, new InflaterInputStream(compressedInput, inflater, IOHelper.BUFFER_SIZE), 0L, resumable);
+            compressedInput.skipRemaining(); // Deflate trailer could be left unread
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private void fillActionsQueue(Queue<Action> queue, HashedDir mismatch, Path subDir, Set<HashedEntry> files, boolean resume) throws IOException {
         for (Entry<String, HashedEntry> mapEntry : mismatch.map().entrySet()) {
             String name = mapEntry.getKey();
             HashedEntry entry = mapEntry.getValue();
@@ -229,11 +458,17 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
             switch (entryType) {
                 case DIR: // cd - get - cd ..
                     queue.add(new Action(Action.Type.CD, name, entry));
-                    fillActionsQueue(queue, (HashedDir) entry);
+                    fillActionsQueue(queue, (HashedDir) entry, subDir.resolve(name), files, resume);
                     queue.add(Action.CD_BACK);
                     break;
                 case FILE: // get
-                    queue.add(new Action(Action.Type.GET, name, entry));
+                    if (files != null && !files.contains(entry)) {
+                        break; // Downloaded by other session
+                    }
+                    Path file = subDir.resolve(name);
+                    long offset = resume ? getResumeOffset(file, (HashedFile) entry) : 0L;
+                    HashedBlocks blocks = offset > 0L ? null : getDeltaBlocks(file, (HashedFile) entry);
+                    queue.add(blocks == null ? new Action(Action.Type.GET, name, entry, offset) : new Action(name, entry, blocks));
                     break;
                 default:
                     throw new AssertionError("Unsupported hashed entry type: " + entryType.name());
@@ -241,10 +476,208 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
         }
     }
 
+    private static HashedBlocks getDeltaBlocks(Path file, HashedFile hFile) throws IOException {
+        if (hFile.size < DELTA_MIN_SIZE || !IOHelper.isFile(file)) {
+            return null;
+        }
+
+        // Hash blocks of local copy (if it's big enough to be worth it)
+        long size = IOHelper.readAttributes(file).size();
+        return size < DELTA_MIN_SIZE ? null : new HashedBlocks(file, HashedBlocks.getBlockSize(size), hFile.size);
+    }
+
+    private long getResumeOffset(Path file, HashedFile hFile) throws IOException {
+        if (partial == null || !partial.isFor(IOHelper.toString(dir.relativize(file)), hFile)) {
+            return 0L;
+        }
+
+        // Verify already downloaded chunks
+        partialDigest = digest ? SecurityHelper.newDigest(DigestAlgorithm.MD5) : null;
+        long offset = partial.verify(file, partialDigest);
+        partialResumed = offset > 0L; // Don't overwrite before resumed
+        return offset;
+    }
+
+    private List<Set<HashedEntry>> partitionFiles(HashedDir mismatch) {
+        Map<HashedFile, Path> files = new IdentityHashMap<>(256);
+        collectFiles(files, mismatch, dir);
+        int count = Math.min(parallelism, files.size());
+        if (count <= 1) {
+            return null; // Single session
+        }
+
+        // Create empty partitions
+        List<Set<HashedEntry>> partitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            partitions.add(Collections.newSetFromMap(new IdentityHashMap<>(files.size() / count + 1)));
+        }
+
+        // Biggest files first, each to least loaded partition (partial download is resumed by main session)
+        List<Map.Entry<HashedFile, Path>> sorted = new ArrayList<>(files.entrySet());
+        sorted.sort(Comparator.comparingLong((Map.Entry<HashedFile, Path> e) -> e.getKey().size).reversed());
+        long[] sizes = new long[count];
+        for (Map.Entry<HashedFile, Path> mapEntry : sorted) {
+            HashedFile hFile = mapEntry.getKey();
+            int index = 0;
+            if (partial == null || !partial.isFor(IOHelper.toString(dir.relativize(mapEntry.getValue())), hFile)) {
+                for (int i = 1; i < count; i++) {
+                    if (sizes[i] < sizes[index]) {
+                        index = i;
+                    }
+                }
+            }
+            partitions.get(index).add(hFile);
+            sizes[index] += hFile.size;
+        }
+        return partitions;
+    }
+
+    private void startSessions(List<FutureTask<Void>> sessions, List<Set<HashedEntry>> partitions, HashedDir mismatch, byte[] hdirSign) throws IOException {
+        if (partitions == null) {
+            return;
+        }
+
+        // Start session per partition (except main)
+        for (int i = 1; i < partitions.size(); i++) {
+            Queue<Action> queue = new LinkedList<>();
+            fillActionsQueue(queue, mismatch, dir, partitions.get(i), false);
+            queue.add(Action.FINISH);
+
+            // Start session thread
+            FutureTask<Void> session = new FutureTask<>(new SessionRequest(queue, hdirSign));
+            CommonHelper.newThread(String.format("Update Session #%d", i), true, session).start();
+            sessions.add(session);
+        }
+    }
+
+    private void rethrowAbortError() throws IOException, SignatureException {
+        Throwable exc = abortError;
+        if (exc == null) {
+            return;
+        }
+
+        // Rethrow first error of any session
+        if (exc instanceof IOException) {
+            throw (IOException) exc;
+        }
+        if (exc instanceof SignatureException) {
+            throw (SignatureException) exc;
+        }
+        if (exc instanceof RuntimeException) {
+            throw (RuntimeException) exc;
+        }
+        if (exc instanceof Error) {
+            throw (Error) exc;
+        }
+        throw new IOException(exc);
+    }
+
     private void updateState(String filePath, long fileDownloaded, long fileSize) {
-        if (stateCallback != null) {
-            stateCallback.call(new State(filePath, fileDownloaded, fileSize,
-                totalDownloaded, totalSize, Duration.between(startTime, Instant.now())));
+        Callback callback = stateCallback;
+        if (callback == null) {
+            return;
+        }
+
+        // Merge state of all sessions into single callback
+        stateLock.lock();
+        try {
+            callback.call(new State(filePath, fileDownloaded, fileSize,
+                totalDownloaded.get(), totalSize, Duration.between(startTime, Instant.now())));
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private static void readBlock(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException(String.format("%d bytes remaining", buffer.remaining()));
+            }
+        }
+    }
+
+    private static void readLiteral(InputStream input, byte[] bytes, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int read = input.read(bytes, offset, length - offset);
+            if (read < 0) {
+                throw new EOFException(String.format("%d bytes remaining", length - offset));
+            }
+            offset += read;
+        }
+    }
+
+    private static void collectFiles(Map<HashedFile, Path> files, HashedDir mismatch, Path subDir) {
+        for (Entry<String, HashedEntry> mapEntry : mismatch.map().entrySet()) {
+            Path path = subDir.resolve(mapEntry.getKey());
+            HashedEntry entry = mapEntry.getValue();
+            HashedEntry.Type entryType = entry.getType();
+            switch (entryType) {
+                case DIR:
+                    collectFiles(files, (HashedDir) entry, path);
+                    break;
+                case FILE:
+                    files.put((HashedFile) entry, path);
+                    break;
+                default:
+                    throw new AssertionError("Unsupported hashed entry type: " + entryType.name());
+            }
+        }
+    }
+
+    private static void writeCachedSign(HOutput output, byte[] sign) throws IOException {
+        output.writeBoolean(sign != null);
+        if (sign != null) {
+            output.writeByteArray(sign, -SecurityHelper.RSA_KEY_LENGTH);
+        }
+    }
+
+    private final class SessionRequest extends Request<Void> implements Callable<Void> {
+        private final Queue<Action> queue;
+        private final byte[] hdirSign;
+
+        private SessionRequest(Queue<Action> queue, byte[] hdirSign) {
+            super(UpdateRequest.this.config);
+            this.queue = queue;
+            this.hdirSign = hdirSign;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            try {
+                return request();
+            } catch (Exception | Error e) {
+                abortSessions(e); // Abort other sessions (including main) instead of waiting for them
+                throw e;
+            } catch (Throwable exc) {
+                abortSessions(exc);
+                throw new ExecutionException(exc);
+            }
+        }
+
+        @Override
+        public Type getType() {
+            return Type.UPDATE;
+        }
+
+        @Override
+        protected Void requestDo(HInput input, HOutput output) throws IOException {
+            sessionStreams.add(input.stream);
+            checkAborted(); // Could be aborted before stream was added
+            output.writeString(dirName, 255);
+            writeCachedSign(output, hdirSign);
+            output.flush();
+            readError(input);
+
+            // Verify it's the same update dir
+            if (input.readBoolean()) {
+                throw new IOException(String.format("Update dir '%s' was changed while updating", dirName));
+            }
+
+            // Download partition
+            boolean compress = input.readBoolean();
+            performActions(input, output, queue, compress, false);
+            return null;
         }
     }
 
@@ -256,29 +689,63 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
         public final Type type;
         public final String name;
         public final HashedEntry entry;
+        public final long offset;
+        public final HashedBlocks blocks;
 
-        public Action(Type type, String name, HashedEntry entry) {
+        public Action(Type type, String name, HashedEntry entry, long offset) {
             this.type = type;
             this.name = name;
             this.entry = entry;
+            this.offset = offset;
+            blocks = null;
+        }
+
+        public Action(Type type, String name, HashedEntry entry) {
+            this(type, name, entry, 0L);
         }
 
-        public Action(HInput input) throws IOException {
+        public Action(String name, HashedEntry entry, HashedBlocks blocks) {
+            type = Type.DELTA;
+            this.name = name;
+            this.entry = entry;
+            offset = 0L;
+            this.blocks = blocks;
+        }
+
+        public Action(HInput input, ToLongFunction<String> fileSize) throws IOException {
             type = Type.read(input);
-            name = type == Type.CD || type == Type.GET ? IOHelper.verifyFileName(input.readString(255)) : null;
+            name = type == Type.CD || type == Type.GET || type == Type.DELTA ? IOHelper.verifyFileName(input.readString(255)) : null;
             entry = null;
+            offset = type == Type.GET ? input.readVarLong() : 0L;
+
+            // Blocks are limited by size of requested file (resolved before reading)
+            if (type == Type.DELTA) {
+                long size = fileSize.applyAsLong(name);
+                if (size < 0L) {
+                    throw new IOException("Unknown hashed file: " + name);
+                }
+                blocks = new HashedBlocks(input, size);
+            } else {
+                blocks = null;
+            }
         }
 
         @Override
         public void write(HOutput output) throws IOException {
             EnumSerializer.write(output, type);
-            if (type == Type.CD || type == Type.GET) {
+            if (type == Type.CD || type == Type.GET || type == Type.DELTA) {
                 output.writeString(name, 255);
             }
+            if (type == Type.GET) {
+                output.writeVarLong(offset);
+            }
+            if (type == Type.DELTA) {
+                blocks.write(output);
+            }
         }
 
         public enum Type implements Itf {
-            CD(1), CD_BACK(2), GET(3), FINISH(255);
+            CD(1), CD_BACK(2), GET(3), DELTA(4), FINISH(255);
             private static final EnumSerializer<Type> SERIALIZER = new EnumSerializer<>(Type.class);
             private final int n;
 
@@ -297,6 +764,68 @@ public final class UpdateRequest extends Request<SignedObjectHolder<HashedDir>>
         }
     }
 
+    public enum DeltaType implements Itf {
+        END(0), COPY(1), LITERAL(2);
+        private static final EnumSerializer<DeltaType> SERIALIZER = new EnumSerializer<>(DeltaType.class);
+        private final int n;
+
+        DeltaType(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public int getNumber() {
+            return n;
+        }
+
+        public static DeltaType read(HInput input) throws IOException {
+            return SERIALIZER.read(input);
+        }
+    }
+
+    private static final class LimitedInputStream extends InputStream {
+        private final InputStream input;
+        private long remaining;
+
+        private LimitedInputStream(InputStream input, long length) {
+            this.input = input;
+            remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0L) {
+                return -1;
+            }
+            int b = input.read();
+            if (b < 0) {
+                throw new EOFException(String.format("%d bytes remaining", remaining));
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0L) {
+                return -1;
+            }
+            int length = input.read(b, off, (int) Math.min(len, remaining));
+            if (length < 0) {
+                throw new EOFException(String.format("%d bytes remaining", remaining));
+            }
+            remaining -= length;
+            return length;
+        }
+
+        private void skipRemaining() throws IOException {
+            byte[] bytes = IOHelper.newBuffer();
+            while (read(bytes, 0, bytes.length) >= 0) {
+                // Just skip
+            }
+        }
+    }
+
     public static final class State {
         @LauncherAPI public final long fileDownloaded;
         @LauncherAPI public final long fileSize;
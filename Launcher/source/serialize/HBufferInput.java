@@ -0,0 +1,49 @@
+package launcher.serialize;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import launcher.LauncherAPI;
+import launcher.helper.VerifyHelper;
+
+public final class HBufferInput extends InputStream {
+    @LauncherAPI public final ByteBuffer buffer;
+
+    @LauncherAPI
+    public HBufferInput(ByteBuffer buffer) {
+        this.buffer = VerifyHelper.verify(buffer, b -> b.order() == ByteOrder.BIG_ENDIAN, "Buffer must be big-endian");
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+
+        // Read as much as possible
+        int length = Math.min(len, buffer.remaining());
+        buffer.get(b, off, length);
+        return length;
+    }
+
+    @Override
+    public long skip(long n) {
+        int length = (int) Math.max(0L, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + length);
+        return length;
+    }
+}
@@ -0,0 +1,85 @@
+package launcher.serialize;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import launcher.LauncherAPI;
+import launcher.helper.IOHelper;
+import launcher.helper.VerifyHelper;
+
+public final class HBufferOutput extends OutputStream {
+    private static final int POOLED_CAPACITY = IOHelper.BUFFER_SIZE << 4;
+    private static final BlockingQueue<ByteBuffer> POOL = new ArrayBlockingQueue<>(VerifyHelper.verifyInt(
+        Integer.parseInt(System.getProperty("launcher.bufferPoolSize", Integer.toString(Runtime.getRuntime().availableProcessors() << 1))),
+        VerifyHelper.POSITIVE, "launcher.bufferPoolSize can't be <= 0"));
+
+    // Instance
+    private ByteBuffer buffer = take();
+
+    @Override
+    public void close() {
+        ByteBuffer released = buffer;
+        if (released != null) {
+            buffer = null;
+            release(released);
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        ensure(1).put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensure(len).put(b, off, len);
+    }
+
+    @LauncherAPI
+    public ByteBuffer ensure(int bytes) {
+        ByteBuffer current = getBuffer();
+        if (current.remaining() >= bytes) {
+            return current;
+        }
+
+        // Grow (large buffers are short-lived, so not pooled)
+        int capacity = Math.max(current.capacity() << 1, current.position() + bytes);
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        current.flip();
+        grown.put(current);
+        buffer = grown;
+        release(current);
+        return grown;
+    }
+
+    @LauncherAPI
+    public int size() {
+        return getBuffer().position();
+    }
+
+    @LauncherAPI
+    public byte[] toByteArray() {
+        ByteBuffer current = getBuffer();
+        return Arrays.copyOf(current.array(), current.position()); // Backing array is reused, so copy once
+    }
+
+    private ByteBuffer getBuffer() {
+        return VerifyHelper.verify(buffer, Objects::nonNull, "Buffer output is closed");
+    }
+
+    private static void release(ByteBuffer buffer) {
+        if (buffer.capacity() == POOLED_CAPACITY) {
+            buffer.clear();
+            POOL.offer(buffer); // Dropped if pool is full
+        }
+    }
+
+    private static ByteBuffer take() {
+        ByteBuffer buffer = POOL.poll();
+        return buffer == null ? ByteBuffer.allocate(POOLED_CAPACITY) : buffer; // Heap, so pool misses are cheap
+    }
+}
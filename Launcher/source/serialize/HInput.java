@@ -1,10 +1,11 @@
 package launcher.serialize;
 
-import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -13,15 +14,22 @@ import launcher.helper.IOHelper;
 
 public final class HInput implements AutoCloseable {
     @LauncherAPI public final InputStream stream;
+    private final ByteBuffer buffer; // Read directly if backed by buffer
 
     @LauncherAPI
     public HInput(InputStream stream) {
         this.stream = Objects.requireNonNull(stream, "stream");
+        buffer = stream instanceof HBufferInput ? ((HBufferInput) stream).buffer : null;
+    }
+
+    @LauncherAPI
+    public HInput(ByteBuffer buffer) {
+        this(new HBufferInput(buffer));
     }
 
     @LauncherAPI
     public HInput(byte[] bytes) {
-        stream = new ByteArrayInputStream(bytes);
+        this(ByteBuffer.wrap(bytes));
     }
 
     @Override
@@ -31,7 +39,7 @@ public final class HInput implements AutoCloseable {
 
     @LauncherAPI
     public String readASCII(int maxBytes) throws IOException {
-        return IOHelper.decodeASCII(readByteArray(maxBytes));
+        return readString(maxBytes, IOHelper.ASCII_CHARSET);
     }
 
     @LauncherAPI
@@ -55,12 +63,19 @@ public final class HInput implements AutoCloseable {
     @LauncherAPI
     public byte[] readByteArray(int max) throws IOException {
         byte[] bytes = new byte[readLength(max)];
+        if (buffer != null) {
+            require(bytes.length).get(bytes);
+            return bytes;
+        }
         IOHelper.read(stream, bytes);
         return bytes;
     }
 
     @LauncherAPI
     public int readInt() throws IOException {
+        if (buffer != null) {
+            return require(Integer.BYTES).getInt();
+        }
         return (readUnsignedByte() << 24) + (readUnsignedByte() << 16) + (readUnsignedByte() << 8) + readUnsignedByte();
     }
 
@@ -74,17 +89,23 @@ public final class HInput implements AutoCloseable {
 
     @LauncherAPI
     public long readLong() throws IOException {
+        if (buffer != null) {
+            return require(Long.BYTES).getLong();
+        }
         return (long) readInt() << 32 | readInt() & 0xFFFFFFFFL;
     }
 
     @LauncherAPI
     public short readShort() throws IOException {
+        if (buffer != null) {
+            return require(Short.BYTES).getShort();
+        }
         return (short) ((readUnsignedByte() << 8) + readUnsignedByte());
     }
 
     @LauncherAPI
     public String readString(int maxBytes) throws IOException {
-        return IOHelper.decode(readByteArray(maxBytes));
+        return readString(maxBytes, IOHelper.UNICODE_CHARSET);
     }
 
     @LauncherAPI
@@ -94,6 +115,9 @@ public final class HInput implements AutoCloseable {
 
     @LauncherAPI
     public int readUnsignedByte() throws IOException {
+        if (buffer != null) {
+            return require(Byte.BYTES).get() & 0xFF;
+        }
         int b = stream.read();
         if (b < 0) {
             throw new EOFException("readUnsignedByte");
@@ -135,4 +159,27 @@ public final class HInput implements AutoCloseable {
         }
         throw new IOException("VarLong too big");
     }
+
+    private ByteBuffer require(int bytes) throws EOFException {
+        if (buffer.remaining() < bytes) {
+            throw new EOFException(String.format("%d bytes required, %d remaining", bytes, buffer.remaining()));
+        }
+        return buffer;
+    }
+
+    private String readString(int maxBytes, Charset charset) throws IOException {
+        int length = readLength(maxBytes);
+        if (buffer == null) {
+            byte[] bytes = new byte[length];
+            IOHelper.read(stream, bytes);
+            return new String(bytes, charset);
+        }
+
+        // Decode directly from buffer
+        ByteBuffer slice = require(length).slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice.hasArray() ? new String(slice.array(), slice.arrayOffset(), length, charset) :
+            charset.decode(slice).toString();
+    }
 }
@@ -4,6 +4,7 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -12,10 +13,12 @@ import launcher.helper.IOHelper;
 
 public final class HOutput implements AutoCloseable, Flushable {
     @LauncherAPI public final OutputStream stream;
+    private final HBufferOutput buffer; // Written directly if backed by buffer
 
     @LauncherAPI
     public HOutput(OutputStream stream) {
         this.stream = Objects.requireNonNull(stream, "stream");
+        buffer = stream instanceof HBufferOutput ? (HBufferOutput) stream : null;
     }
 
     @Override
@@ -30,7 +33,17 @@ public final class HOutput implements AutoCloseable, Flushable {
 
     @LauncherAPI
     public void writeASCII(String s, int maxBytes) throws IOException {
-        writeByteArray(IOHelper.encodeASCII(s), maxBytes);
+        if (buffer == null || !isASCII(s)) {
+            writeByteArray(IOHelper.encodeASCII(s), maxBytes);
+            return;
+        }
+
+        // Encode directly to buffer
+        writeLength(s.length(), maxBytes);
+        ByteBuffer b = buffer.ensure(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            b.put((byte) s.charAt(i));
+        }
     }
 
     @LauncherAPI
@@ -51,6 +64,10 @@ public final class HOutput implements AutoCloseable, Flushable {
 
     @LauncherAPI
     public void writeInt(int i) throws IOException {
+        if (buffer != null) {
+            buffer.ensure(Integer.BYTES).putInt(i);
+            return;
+        }
         writeUnsignedByte(i >>> 24 & 0xFF);
         writeUnsignedByte(i >>> 16 & 0xFF);
         writeUnsignedByte(i >>> 8 & 0xFF);
@@ -67,19 +84,54 @@ public final class HOutput implements AutoCloseable, Flushable {
 
     @LauncherAPI
     public void writeLong(long l) throws IOException {
+        if (buffer != null) {
+            buffer.ensure(Long.BYTES).putLong(l);
+            return;
+        }
         writeInt((int) (l >> 32));
         writeInt((int) l);
     }
 
     @LauncherAPI
     public void writeShort(short s) throws IOException {
+        if (buffer != null) {
+            buffer.ensure(Short.BYTES).putShort(s);
+            return;
+        }
         writeUnsignedByte(s >>> 8 & 0xFF);
         writeUnsignedByte(s & 0xFF);
     }
 
     @LauncherAPI
     public void writeString(String s, int maxBytes) throws IOException {
-        writeByteArray(IOHelper.encode(s), maxBytes);
+        int length = buffer == null ? -1 : utf8Length(s);
+        if (length < 0) { // Not backed by buffer, or has unpaired surrogates
+            writeByteArray(IOHelper.encode(s), maxBytes);
+            return;
+        }
+
+        // Encode directly to buffer
+        writeLength(length, maxBytes);
+        ByteBuffer b = buffer.ensure(length);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                b.put((byte) c);
+            } else if (c < 0x800) {
+                b.put((byte) (0xC0 | c >>> 6));
+                b.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                b.put((byte) (0xF0 | cp >>> 18));
+                b.put((byte) (0x80 | cp >>> 12 & 0x3F));
+                b.put((byte) (0x80 | cp >>> 6 & 0x3F));
+                b.put((byte) (0x80 | cp & 0x3F));
+            } else {
+                b.put((byte) (0xE0 | c >>> 12));
+                b.put((byte) (0x80 | c >>> 6 & 0x3F));
+                b.put((byte) (0x80 | c & 0x3F));
+            }
+        }
     }
 
     @LauncherAPI
@@ -90,6 +142,10 @@ public final class HOutput implements AutoCloseable, Flushable {
 
     @LauncherAPI
     public void writeUnsignedByte(int b) throws IOException {
+        if (buffer != null) {
+            buffer.ensure(Byte.BYTES).put((byte) b);
+            return;
+        }
         stream.write(b);
     }
 
@@ -110,4 +166,33 @@ public final class HOutput implements AutoCloseable, Flushable {
         }
         writeUnsignedByte((int) l);
     }
+
+    private static boolean isASCII(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                return -1; // Unpaired, encoded as '?' by charset
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
 }
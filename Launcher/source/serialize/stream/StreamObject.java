@@ -1,10 +1,9 @@
 package launcher.serialize.stream;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import launcher.LauncherAPI;
-import launcher.helper.IOHelper;
+import launcher.serialize.HBufferOutput;
 import launcher.serialize.HInput;
 import launcher.serialize.HOutput;
 
@@ -16,11 +15,9 @@ public abstract class StreamObject {
 
     @LauncherAPI
     public final byte[] write() throws IOException {
-        try (ByteArrayOutputStream array = IOHelper.newByteArrayOutput()) {
-            try (HOutput output = new HOutput(array)) {
-                write(output);
-            }
-            return array.toByteArray();
+        try (HBufferOutput buffer = new HBufferOutput(); HOutput output = new HOutput(buffer)) {
+            write(output);
+            return buffer.toByteArray();
         }
     }
 